@@ -0,0 +1,69 @@
+package com.workshopspring.libraryapi.benchmarks;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.responses.BatchCreateResponse;
+import com.workshopspring.libraryapi.services.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserting the same number of books one by one and through the batch path; scores are per book.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BookBatchBenchmark {
+
+    private static final int BOOKS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private BookService service;
+    private long sequence;
+    private List<CreateBookCommand> commands;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = LibraryContext.start();
+        service = context.getBean(BookService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextCommands() {
+        commands = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++, sequence++) {
+            commands.add(new CreateBookCommand("Book " + sequence, "Author", TestBase.isbn(sequence)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOOKS)
+    public void saveOneByOne(Blackhole blackhole) {
+        for (var command : commands) blackhole.consume(service.save(command));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOOKS)
+    public BatchCreateResponse saveAll() {
+        return service.saveAll(commands);
+    }
+}
@@ -0,0 +1,52 @@
+package com.workshopspring.libraryapi.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.entity.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uses an ObjectMapper configured the way Spring MVC builds its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookJsonBenchmark {
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private Book book;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(Book.class);
+        reader = objectMapper.readerFor(Book.class);
+        book = new Book(1L, "Clean Code", "Robert C. Martin", TestBase.CLEAN_CODE_ISBN);
+        book.setVersion(3L);
+        json = writer.writeValueAsBytes(book);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(book);
+    }
+
+    @Benchmark
+    public Book deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+}
@@ -0,0 +1,68 @@
+package com.workshopspring.libraryapi.benchmarks;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.loading.BookLoader;
+import com.workshopspring.libraryapi.services.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uncached lookups of a few hot ids from 32 threads, the promotion pattern the loader targets. With
+ * the loader disabled every lookup is its own findById; enabled, concurrent lookups share queries.
+ * The library.book.loader.coalescing.ratio gauge is printed at tear down.
+ */
+@State(Scope.Benchmark)
+@Threads(32)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BookLoaderBenchmark {
+
+    private static final int HOT_IDS = 8;
+
+    @Param({"true", "false"})
+    public boolean enabled;
+
+    private ConfigurableApplicationContext context;
+    private BookLoader loader;
+    private long[] ids;
+
+    @Setup
+    public void setUp() {
+        context = LibraryContext.start("library.book-loader.enabled=" + enabled);
+        loader = context.getBean(BookLoader.class);
+        var service = context.getBean(BookService.class);
+        ids = new long[HOT_IDS];
+        for (int i = 0; i < HOT_IDS; i++) {
+            ids[i] = service.save(new CreateBookCommand("Book " + i, "Author", TestBase.isbn(800_000 + i))).getId();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        var ratio = context.getBean(MeterRegistry.class)
+                .find("library.book.loader.coalescing.ratio").gauge();
+        if (ratio != null) System.out.printf("%ncoalescing ratio: %.2f%n", ratio.value());
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Book> load() {
+        return loader.load(ids[ThreadLocalRandom.current().nextInt(HOT_IDS)]);
+    }
+}
@@ -0,0 +1,70 @@
+package com.workshopspring.libraryapi.benchmarks;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.mappers.BookMapper;
+import com.workshopspring.libraryapi.mappers.impl.BookMapperImpl;
+import com.workshopspring.libraryapi.responses.BookResponse;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.config.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookMapper against the default ModelMapper the service used before, for both directions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookMappingBenchmark {
+
+    private ModelMapper modelMapper;
+    private BookMapper bookMapper;
+    private CreateBookCommand command;
+    private Book book;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        // BookResponse is immutable: ModelMapper gets the instance from a provider and fills its fields reflectively
+        modelMapper.createTypeMap(Book.class, BookResponse.class, modelMapper.getConfiguration().copy()
+                        .setFieldMatchingEnabled(true)
+                        .setFieldAccessLevel(Configuration.AccessLevel.PRIVATE))
+                .setProvider(request -> new BookResponse(null, null, null, null, null));
+        bookMapper = new BookMapperImpl();
+        command = new CreateBookCommand("Clean Code", "Robert C. Martin", TestBase.CLEAN_CODE_ISBN);
+        book = new Book(1L, "Clean Code", "Robert C. Martin", TestBase.CLEAN_CODE_ISBN);
+        book.setVersion(3L);
+        modelMapper.map(command, Book.class);
+        var mapped = modelMapper.map(book, BookResponse.class);
+        if (!mapped.equals(bookMapper.toResponse(book))) throw new IllegalStateException("ModelMapper mapped " + mapped);
+    }
+
+    @Benchmark
+    public Book modelMapperToEntity() {
+        return modelMapper.map(command, Book.class);
+    }
+
+    @Benchmark
+    public Book bookMapperToEntity() {
+        return bookMapper.toEntity(command);
+    }
+
+    @Benchmark
+    public BookResponse modelMapperToResponse() {
+        return modelMapper.map(book, BookResponse.class);
+    }
+
+    @Benchmark
+    public BookResponse bookMapperToResponse() {
+        return bookMapper.toResponse(book);
+    }
+}
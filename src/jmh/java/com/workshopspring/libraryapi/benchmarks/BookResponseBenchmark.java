@@ -0,0 +1,96 @@
+package com.workshopspring.libraryapi.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.mappers.BookMapper;
+import com.workshopspring.libraryapi.mappers.impl.BookMapperImpl;
+import com.workshopspring.libraryapi.responses.BookPageResponse;
+import com.workshopspring.libraryapi.responses.BookResponse;
+import com.workshopspring.libraryapi.responses.BookResponseJson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Body writing for GET /api/books/{id} and a 20 book page, from the entity to bytes on a reused stream.
+ * Run with -Djmh.args="-prof gc BookResponse" and compare gc.alloc.rate.norm (bytes per operation).
+ *
+ * entity*: the entity serialised by bean introspection, as before response views existed.
+ * responseFind: mapping to BookResponse and writing it with the BookResponseJson serialisers.
+ * responsePage: writing a page as the repository now projects it, without entities or mapping.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookResponseBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private ObjectWriter entityWriter;
+    private ObjectWriter responseWriter;
+    private BookMapper mapper;
+    private Book book;
+    private List<Book> books;
+    private BookPageResponse page;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+
+    @Setup
+    public void setUp() {
+        entityWriter = Jackson2ObjectMapperBuilder.json().build().writer();
+        responseWriter = Jackson2ObjectMapperBuilder.json()
+                .serializers(new BookResponseJson.BookSerializer(), new BookResponseJson.PageSerializer())
+                .build().writer();
+        mapper = new BookMapperImpl();
+        books = new ArrayList<>(PAGE_SIZE);
+        for (long i = 1; i <= PAGE_SIZE; i++) {
+            var next = new Book(i, "Book " + i, "Robert C. Martin", TestBase.isbn(i));
+            next.setVersion(i);
+            books.add(next);
+        }
+        book = books.get(0);
+        var items = new ArrayList<BookResponse>(PAGE_SIZE);
+        for (var next : books) items.add(mapper.toResponse(next));
+        page = new BookPageResponse(items, "MjA");
+    }
+
+    @Benchmark
+    public int entityFind() throws IOException {
+        out.reset();
+        entityWriter.writeValue(out, book);
+        return out.size();
+    }
+
+    @Benchmark
+    public int responseFind() throws IOException {
+        out.reset();
+        responseWriter.writeValue(out, mapper.toResponse(book));
+        return out.size();
+    }
+
+    @Benchmark
+    public int entityPage() throws IOException {
+        out.reset();
+        entityWriter.writeValue(out, Map.of("items", books, "next", "MjA"));
+        return out.size();
+    }
+
+    @Benchmark
+    public int responsePage() throws IOException {
+        out.reset();
+        responseWriter.writeValue(out, page);
+        return out.size();
+    }
+}
@@ -0,0 +1,83 @@
+package com.workshopspring.libraryapi.benchmarks;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.queries.BookFilter;
+import com.workshopspring.libraryapi.repositories.BookRepository;
+import com.workshopspring.libraryapi.responses.BookPageResponse;
+import com.workshopspring.libraryapi.services.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Round trips through the service and repository against embedded H2. findById is served by the
+ * books cache after the first call, repositoryFindById shows the cost without it. findAll reads a
+ * 20 book page filtered by author.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookServiceBenchmark {
+
+    private static final int PRELOADED = 10_000;
+    private static final BookFilter FIRST_PAGE = new BookFilter("Author 7", null, null);
+
+    @Param({"true", "false"})
+    public boolean isbnIndex;
+
+    private ConfigurableApplicationContext context;
+    private BookService service;
+    private BookRepository repository;
+    private final AtomicLong sequence = new AtomicLong(PRELOADED);
+    private Long existingId;
+
+    @Setup
+    public void setUp() {
+        context = LibraryContext.start("library.isbn-index.enabled=" + isbnIndex);
+        service = context.getBean(BookService.class);
+        repository = context.getBean(BookRepository.class);
+        for (long i = 0; i < PRELOADED; i++) {
+            var book = service.save(new CreateBookCommand("Book " + i, "Author " + (i % 100), TestBase.isbn(i)));
+            if (existingId == null) existingId = book.getId();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Book save() {
+        var n = sequence.getAndIncrement();
+        return service.save(new CreateBookCommand("Book " + n, "Author", TestBase.isbn(n)));
+    }
+
+    @Benchmark
+    public Book findById() {
+        return service.findById(existingId);
+    }
+
+    @Benchmark
+    public Optional<Book> repositoryFindById() {
+        return repository.findById(existingId);
+    }
+
+    @Benchmark
+    public BookPageResponse findAll() {
+        return service.findAll(FIRST_PAGE, null, 20);
+    }
+}
@@ -0,0 +1,82 @@
+package com.workshopspring.libraryapi.benchmarks;
+
+import com.workshopspring.libraryapi.queries.BookField;
+import com.workshopspring.libraryapi.suggest.SuggestSnapshot;
+import com.workshopspring.libraryapi.suggest.Suggestion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead lookups over a million generated titles and a hundred thousand authors, with prefixes of one to
+ * four characters. The one-character case scans the widest range and bounds the worst keystroke. The packed
+ * footprint per million titles is printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookSuggestBenchmark {
+
+    private static final int TITLES = 1_000_000;
+    private static final int AUTHORS = 100_000;
+    private static final int PREFIXES = 1024;
+
+    @Param({"1", "2", "4"})
+    public int prefixLength;
+
+    private SuggestSnapshot snapshot;
+    private String[] prefixes;
+
+    @Setup
+    public void setUp() {
+        var random = new Random(42);
+        var words = new String[5_000];
+        for (int i = 0; i < words.length; i++) words[i] = word(random, 3 + random.nextInt(7));
+        var authors = new String[AUTHORS];
+        for (int i = 0; i < AUTHORS; i++) authors[i] = capitalize(word(random, 5)) + " " + capitalize(word(random, 8));
+
+        var builder = SuggestSnapshot.builder();
+        var titles = new String[TITLES];
+        for (int i = 0; i < TITLES; i++) {
+            var title = new StringBuilder(capitalize(words[random.nextInt(words.length)]));
+            for (int w = random.nextInt(4); w >= 0; w--) title.append(' ').append(words[random.nextInt(words.length)]);
+            titles[i] = title.toString();
+            builder.add(BookField.TITLE, titles[i], 1)
+                    .add(BookField.AUTHOR, authors[(int) Math.abs(random.nextGaussian() * AUTHORS / 4) % AUTHORS], 1);
+        }
+        snapshot = builder.build();
+
+        prefixes = new String[PREFIXES];
+        for (int i = 0; i < PREFIXES; i++) {
+            var source = i % 2 == 0 ? titles[random.nextInt(TITLES)] : authors[random.nextInt(AUTHORS)];
+            prefixes[i] = source.substring(0, Math.min(prefixLength, source.length()));
+        }
+        System.out.printf("%n%d entries, %.1f MB per million titles%n", snapshot.size(),
+                snapshot.memoryBytes() / (1024.0 * 1024.0) * 1_000_000 / TITLES);
+    }
+
+    @Benchmark
+    public List<Suggestion> suggest() {
+        return snapshot.suggest(prefixes[ThreadLocalRandom.current().nextInt(PREFIXES)], 10);
+    }
+
+    private static String word(Random random, int length) {
+        var chars = new char[length];
+        for (int i = 0; i < length; i++) chars[i] = (char) ('a' + random.nextInt(26));
+        return new String(chars);
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
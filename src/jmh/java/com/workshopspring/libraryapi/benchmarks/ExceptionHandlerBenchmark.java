@@ -0,0 +1,114 @@
+package com.workshopspring.libraryapi.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.controllers.BookController;
+import com.workshopspring.libraryapi.exceptions.DomainException;
+import com.workshopspring.libraryapi.exceptions.DuplicatedISBN;
+import com.workshopspring.libraryapi.exceptions.ErrorResponses;
+import com.workshopspring.libraryapi.exceptions.GlobalExceptionHandler;
+import com.workshopspring.libraryapi.exceptions.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import javax.validation.Validation;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each error path as the application takes it: the exception is created and thrown from a few frames
+ * down, then caught and turned into a response by the handler, whose body is written the way Spring
+ * MVC's Jackson converter would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private ErrorResponses responses;
+    private ObjectMapper objectMapper;
+    private SpringValidatorAdapter validator;
+    private MethodParameter createParameter;
+    private CreateBookCommand invalidCommand;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        responses = new ErrorResponses(new SimpleMeterRegistry(), objectMapper);
+        handler = new GlobalExceptionHandler(responses);
+        validator = new SpringValidatorAdapter(Validation.buildDefaultValidatorFactory().getValidator());
+        createParameter = new MethodParameter(BookController.class.getMethod("create", CreateBookCommand.class), 0);
+        invalidCommand = new CreateBookCommand("", null, "123");
+    }
+
+    @Benchmark
+    public byte[] notFound() throws JsonProcessingException {
+        try {
+            findMissing(8, 1L);
+            return null;
+        } catch (ResourceNotFoundException e) {
+            return write(handler.handleResourceNotFoundException(e));
+        }
+    }
+
+    @Benchmark
+    public byte[] notFoundLookup() throws JsonProcessingException {
+        var book = lookupMissing(8, 1L);
+        return book.isEmpty() ? write(responses.notFound(1L)) : null;
+    }
+
+    @Benchmark
+    public byte[] domainError() throws JsonProcessingException {
+        try {
+            saveDuplicate(8);
+            return null;
+        } catch (DomainException e) {
+            return write(handler.handleDomainException(e));
+        }
+    }
+
+    @Benchmark
+    public byte[] validationError() throws JsonProcessingException {
+        var bindingResult = new BeanPropertyBindingResult(invalidCommand, "createBookCommand");
+        validator.validate(invalidCommand, bindingResult);
+        try {
+            throw new MethodArgumentNotValidException(createParameter, bindingResult);
+        } catch (MethodArgumentNotValidException e) {
+            return write(handler.handleMethodArgumentNotValidException(e));
+        }
+    }
+
+    private byte[] write(ResponseEntity<?> response) throws JsonProcessingException {
+        var body = response.getBody();
+        return body instanceof byte[] ? (byte[]) body : objectMapper.writeValueAsBytes(body);
+    }
+
+    private static void findMissing(int depth, Long id) {
+        if (depth == 0) throw new ResourceNotFoundException(id);
+        findMissing(depth - 1, id);
+    }
+
+    private static Optional<Object> lookupMissing(int depth, Long id) {
+        if (depth == 0) return Optional.empty();
+        return lookupMissing(depth - 1, id);
+    }
+
+    private static void saveDuplicate(int depth) {
+        if (depth == 0) throw new DuplicatedISBN("Duplicated ISBN", "Book");
+        saveDuplicate(depth - 1);
+    }
+}
@@ -0,0 +1,122 @@
+package com.workshopspring.libraryapi.benchmarks;
+
+import com.workshopspring.libraryapi.LibraryApiApplication;
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.services.BookService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP load against a running server in each execution mode: 64 concurrent clients by default (-t to
+ * change) listing books by author, so every request goes to the database. The clients share the machine
+ * with the server, so keep -t within what the box can drive. Throughput mode gives requests
+ * per second, SampleTime the latency percentiles (p0.99). The reactive mode serves the same route from
+ * the WebFlux/R2DBC stack (the {@code reactive} profile) instead of Tomcat and JPA.
+ *
+ * Virtual mode needs the forks on a Java 21 runtime:
+ * mvn -Pbenchmark verify -Djmh.args="-f 1 -jvm /path/to/jdk-21/bin/java ExecutionModeLoad"
+ */
+@State(Scope.Benchmark)
+@Threads(64)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExecutionModeLoadBenchmark {
+
+    private static final int AUTHORS = 100;
+    private static final int BOOKS = 10_000;
+
+    @Param({"platform", "virtual", "reactive"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUri;
+
+    @Setup(Level.Trial)
+    public void start() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        var database = "load-" + UUID.randomUUID();
+        var properties = new ArrayList<>(List.of("server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN"));
+        var reactive = mode.equals("reactive");
+        if (reactive) {
+            properties.add("spring.r2dbc.url=r2dbc:h2:mem:///" + database + "?options=DB_CLOSE_DELAY=-1");
+        } else {
+            properties.add("library.execution.mode=" + mode);
+        }
+        context = new SpringApplicationBuilder(LibraryApiApplication.class)
+                .web(reactive ? WebApplicationType.REACTIVE : WebApplicationType.SERVLET)
+                .profiles(reactive ? new String[]{"reactive"} : new String[0])
+                .properties(properties.toArray(String[]::new))
+                .run();
+        var service = context.getBean(BookService.class);
+        var commands = new ArrayList<CreateBookCommand>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            commands.add(new CreateBookCommand("Book " + i, "Author " + (i % AUTHORS), TestBase.isbn(600_000 + i)));
+        }
+        service.saveAll(commands);
+
+        var port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUri = "http://localhost:" + port + "/api/books?size=20&author=Author%20";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public int listByAuthor(Responses responses) throws IOException, InterruptedException {
+        var uri = URI.create(baseUri + ThreadLocalRandom.current().nextInt(AUTHORS));
+        var response = client.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 200) responses.ok++;
+        else responses.failed++;
+        return response.statusCode();
+    }
+
+    /**
+     * Reported next to the score, so shed (503) or failed requests do not pass for throughput.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Responses {
+
+        public long ok;
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            ok = 0;
+            failed = 0;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.workshopspring.libraryapi.benchmarks;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.services.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of the service and repository timers on the two hottest paths: a cached findById, which is
+ * little more than the timing advice around a cache read, and findVersion, a query through the repository.
+ * Off drops the service advice, repository timing and every meter; on is the shipped configuration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsOverheadBenchmark {
+
+    @Param({"true", "false"})
+    public boolean metrics;
+
+    private ConfigurableApplicationContext context;
+    private BookService service;
+    private Long id;
+
+    @Setup
+    public void setUp() {
+        context = metrics
+                ? LibraryContext.start()
+                : LibraryContext.start("library.metrics.service-timing=false",
+                        "management.metrics.data.repository.autotime.enabled=false",
+                        "management.metrics.enable.all=false");
+        service = context.getBean(BookService.class);
+        id = service.save(new CreateBookCommand("Book", "Author", TestBase.isbn(900_000))).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Book cachedFindById() {
+        return service.findById(id);
+    }
+
+    @Benchmark
+    public Long findVersion() {
+        return service.findVersion(id);
+    }
+}
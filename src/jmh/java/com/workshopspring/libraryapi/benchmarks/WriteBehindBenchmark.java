@@ -0,0 +1,67 @@
+package com.workshopspring.libraryapi.benchmarks;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.services.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent single-book creates, each committing its own transaction or joining a group commit. The file
+ * database makes the commit itself cost something, as it would against a real server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+public class WriteBehindBenchmark {
+
+    @Param({"false", "true"})
+    private boolean writeBehind;
+
+    @Param({"mem", "file"})
+    private String database;
+
+    private ConfigurableApplicationContext context;
+    private BookService service;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void start() {
+        var url = "file".equals(database)
+                ? "jdbc:h2:file:" + Path.of("target", "bench-" + UUID.randomUUID()).toAbsolutePath()
+                : "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        context = LibraryContext.start("spring.datasource.url=" + url,
+                "library.write-behind.enabled=" + writeBehind,
+                "spring.jpa.hibernate.ddl-auto=create",
+                "library.outbox.poll-interval=1h");
+        service = context.getBean(BookService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Book save() {
+        var n = sequence.getAndIncrement();
+        return service.save(new CreateBookCommand("Book " + n, "Author", TestBase.isbn(n)));
+    }
+}
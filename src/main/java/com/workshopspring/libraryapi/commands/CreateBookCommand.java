@@ -1,5 +1,6 @@
 package com.workshopspring.libraryapi.commands;
 
+import com.workshopspring.libraryapi.isbn.ValidIsbn;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,6 +12,11 @@ import javax.validation.constraints.NotEmpty;
 @AllArgsConstructor
 public class CreateBookCommand {
 
+    /**
+     * Books accepted in one batch; they are all inserted in a single transaction.
+     */
+    public static final int MAX_BATCH = 500;
+
     @NotEmpty
     private String title;
 
@@ -18,5 +24,6 @@ public class CreateBookCommand {
     private String author;
 
     @NotEmpty
+    @ValidIsbn
     private String isbn;
 }
@@ -0,0 +1,38 @@
+package com.workshopspring.libraryapi.commands;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.workshopspring.libraryapi.queries.BookField;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LookupBooksCommand {
+
+    public static final int MAX_KEYS = 500;
+
+    @Size(max = MAX_KEYS)
+    private List<@NotNull Long> ids;
+
+    @Size(max = MAX_KEYS)
+    private List<@NotNull String> isbns;
+
+    /**
+     * Fields written for each book found; every field when empty.
+     */
+    private Set<BookField> fields;
+
+    @JsonIgnore
+    @AssertTrue(message = "ids or isbns must not be empty")
+    public boolean isKeyed() {
+        return (ids != null && !ids.isEmpty()) || (isbns != null && !isbns.isEmpty());
+    }
+}
@@ -0,0 +1,19 @@
+package com.workshopspring.libraryapi.commands;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Pattern;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatchBookCommand {
+
+    @Pattern(regexp = ".*\\S.*", message = "must not be blank")
+    private String title;
+
+    @Pattern(regexp = ".*\\S.*", message = "must not be blank")
+    private String author;
+}
@@ -0,0 +1,29 @@
+package com.workshopspring.libraryapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.book-loader")
+public class BookLoaderProperties {
+
+    /**
+     * When disabled every lookup goes straight to {@code repository.findById}.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long the first lookup of a batch waits for others to join it. Every cache miss pays it once,
+     * so keep it well under the query time it saves.
+     */
+    private Duration batchWindow = Duration.ofMillis(1);
+
+    /**
+     * Ids per {@code findAllById} query; a full batch is dispatched without waiting out the window.
+     */
+    private int maxBatchSize = 100;
+}
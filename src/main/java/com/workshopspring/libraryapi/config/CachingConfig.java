@@ -0,0 +1,15 @@
+package com.workshopspring.libraryapi.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Caching runs outside the transaction advice, so a cache hit never begins a transaction or borrows a connection.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CachingConfig {
+
+    public static final String BOOKS = "books";
+}
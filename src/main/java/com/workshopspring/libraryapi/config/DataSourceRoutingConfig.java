@@ -0,0 +1,100 @@
+package com.workshopspring.libraryapi.config;
+
+import com.workshopspring.libraryapi.routing.ReadWriteRoutingDataSource;
+import com.workshopspring.libraryapi.routing.ReadYourWritesFilter;
+import com.workshopspring.libraryapi.routing.ReplicaReads;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * Primary plus read replica behind one DataSource. The two pools are not beans themselves: the only DataSource in
+ * the context is the routing one, so statement recording and health checks see every connection exactly once.
+ * Both pools report their own Hikari metrics, tagged pool=primary and pool=replica.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "library.datasource.replica", name = "url")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceRoutingConfig {
+
+    private static final String HIKARI = "spring.datasource.hikari";
+
+    private ReadWriteRoutingDataSource routing;
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, ReplicaProperties replica, Environment environment,
+                                 MeterRegistry registry, ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        var binder = Binder.get(environment);
+
+        var primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind(HIKARI, Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        primary.setMetricRegistry(registry);
+
+        var secondary = new HikariDataSource();
+        secondary.setDriverClassName(properties.determineDriverClassName());
+        binder.bind(HIKARI, Bindable.ofInstance(secondary));
+        secondary.setJdbcUrl(replica.getUrl());
+        secondary.setUsername(replica.getUsername() != null ? replica.getUsername() : properties.determineUsername());
+        secondary.setPassword(replica.getPassword() != null ? replica.getPassword() : properties.determinePassword());
+        if (replica.getMaximumPoolSize() != null) secondary.setMaximumPoolSize(replica.getMaximumPoolSize());
+        secondary.setConnectionTimeout(replica.getConnectionTimeout().toMillis());
+        // a replica that is down at startup must not keep the application from starting
+        secondary.setInitializationFailTimeout(-1);
+        secondary.setPoolName("replica");
+        secondary.setMetricRegistry(registry);
+
+        routing = new ReadWriteRoutingDataSource(primary, secondary,
+                () -> {
+                    ReplicaReads.mark();
+                    skipCachePuts(entityManagerFactory.getIfAvailable());
+                }, replica.getHealthCheckInterval(), registry);
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaProperties replica) {
+        var registration = new FilterRegistrationBean<>(new ReadYourWritesFilter(replica.getStickiness()));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    /**
+     * A session reading the replica may see rows older than the primary's, which must not go into the
+     * second-level or query cache where they would outlive the lag. Reading entries cached from the primary is fine.
+     */
+    private static void skipCachePuts(EntityManagerFactory entityManagerFactory) {
+        if (entityManagerFactory == null) return;
+        var holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory);
+        if (holder != null) holder.getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.GET);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (routing == null) return;
+        routing.close();
+        routing.getResolvedDataSources().values().forEach(pool -> ((HikariDataSource) pool).close());
+    }
+}
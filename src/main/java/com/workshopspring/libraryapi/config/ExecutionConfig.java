@@ -0,0 +1,50 @@
+package com.workshopspring.libraryapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshopspring.libraryapi.execution.ConcurrencyLimitFilter;
+import com.workshopspring.libraryapi.execution.VirtualThreads;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Virtual mode hands Tomcat a virtual-thread-per-request executor and puts a concurrency limit in front
+ * of the API. Platform mode keeps Tomcat's own pool, configured by the server.tomcat.* properties.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "library.execution", name = "mode", havingValue = "virtual")
+public class ExecutionConfig {
+
+    /**
+     * Not a bean itself: an Executor bean would displace Boot's applicationTaskExecutor.
+     */
+    private ExecutorService executor;
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadExecutor() {
+        executor = VirtualThreads.newThreadPerTaskExecutor("http-virtual-");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(ExecutionProperties properties,
+                                                                                ObjectMapper objectMapper) {
+        var filter = new ConcurrencyLimitFilter(properties.getMaxConcurrentRequests(), properties.getQueueTimeout(),
+                objectMapper);
+        var registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) executor.shutdown();
+    }
+}
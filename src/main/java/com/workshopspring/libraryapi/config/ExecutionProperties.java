@@ -0,0 +1,28 @@
+package com.workshopspring.libraryapi.config;
+
+import com.workshopspring.libraryapi.execution.ExecutionMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.execution")
+public class ExecutionProperties {
+
+    private ExecutionMode mode = ExecutionMode.PLATFORM;
+
+    /**
+     * API requests allowed in flight at once in virtual mode, where the thread count no longer bounds them.
+     * Should stay a small multiple of the Hikari pool size, as anything above it only waits for a connection; when
+     * not set it is four times {@code spring.datasource.hikari.maximum-pool-size}.
+     */
+    private int maxConcurrentRequests = 40;
+
+    /**
+     * How long a request over the limit waits for a slot before it is answered with 503.
+     */
+    private Duration queueTimeout = Duration.ofSeconds(2);
+}
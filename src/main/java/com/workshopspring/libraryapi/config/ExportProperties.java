@@ -0,0 +1,18 @@
+package com.workshopspring.libraryapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.export")
+public class ExportProperties {
+
+    /**
+     * Async timeout of the catalogue export stream only; other async requests keep the MVC default.
+     */
+    private Duration timeout = Duration.ofHours(1);
+}
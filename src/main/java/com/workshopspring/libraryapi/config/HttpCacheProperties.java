@@ -0,0 +1,32 @@
+package com.workshopspring.libraryapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.http.cache")
+public class HttpCacheProperties {
+
+    /**
+     * How long clients may reuse a book response before revalidating it with its ETag.
+     */
+    private Duration maxAge = Duration.ZERO;
+
+    /**
+     * Overrides max-age for shared caches such as CDNs, when set.
+     */
+    private Duration sharedMaxAge;
+
+    private boolean shared = true;
+
+    public CacheControl toCacheControl() {
+        var cacheControl = CacheControl.maxAge(maxAge).mustRevalidate();
+        cacheControl = shared ? cacheControl.cachePublic() : cacheControl.cachePrivate();
+        return sharedMaxAge == null ? cacheControl : cacheControl.sMaxAge(sharedMaxAge);
+    }
+}
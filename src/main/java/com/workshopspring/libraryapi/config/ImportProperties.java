@@ -0,0 +1,28 @@
+package com.workshopspring.libraryapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.import")
+public class ImportProperties {
+
+    /**
+     * Catalogue file imported on startup, if any.
+     */
+    private String file;
+
+    /**
+     * Records written and committed per transaction.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Parsed chunks allowed to wait for the writer before the reader blocks.
+     */
+    private int queueCapacity = 4;
+
+    private int readBufferSize = 64 * 1024;
+}
@@ -0,0 +1,25 @@
+package com.workshopspring.libraryapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.isbn-index")
+public class IsbnIndexProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Lower bound for the filter size; warming sizes it for twice the current row count when that is larger.
+     */
+    private long expectedInsertions = 1_000_000;
+
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * Share of deletions, relative to indexed ISBNs, after which the filter is rebuilt to drop stale bits.
+     */
+    private double rebuildAfterDeletedRatio = 0.25;
+}
@@ -0,0 +1,44 @@
+package com.workshopspring.libraryapi.config;
+
+import com.workshopspring.libraryapi.metrics.ServiceTimingInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Service;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Times every public method of the {@code @Service} beans. Calls returning a publisher are left out, their work
+ * happens after the method returns. Runs outside the cache and transaction advice, so cache hits are timed too.
+ * Set {@code library.metrics.service-timing=false} to drop the advice altogether.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "library.metrics", name = "service-timing", havingValue = "true", matchIfMissing = true)
+public class MetricsConfig {
+
+    @Bean
+    public static Advisor serviceTimingAdvisor(ObjectProvider<MeterRegistry> registry) {
+        var pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return AnnotatedElementUtils.hasAnnotation(targetClass, Service.class)
+                        && Modifier.isPublic(method.getModifiers())
+                        && method.getDeclaringClass() != Object.class
+                        && !Publisher.class.isAssignableFrom(method.getReturnType());
+            }
+        };
+        var advisor = new DefaultPointcutAdvisor(pointcut, new ServiceTimingInterceptor(registry));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
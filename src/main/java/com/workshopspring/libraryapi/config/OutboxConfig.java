@@ -0,0 +1,17 @@
+package com.workshopspring.libraryapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshopspring.libraryapi.outbox.NdjsonFileChangeSink;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "library.outbox", name = "file")
+    public NdjsonFileChangeSink ndjsonFileChangeSink(OutboxProperties properties, ObjectMapper objectMapper) {
+        return new NdjsonFileChangeSink(properties.getFile(), objectMapper);
+    }
+}
@@ -0,0 +1,30 @@
+package com.workshopspring.libraryapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.outbox")
+public class OutboxProperties {
+
+    private boolean enabled = true;
+
+    private int batchSize = 500;
+
+    /**
+     * The relay also runs right after each commit; polling only catches rows whose wake-up was missed.
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    private int maxFeedSize = 1000;
+
+    /**
+     * When set, every relayed change is also appended to this file as one JSON line.
+     */
+    private Path file;
+}
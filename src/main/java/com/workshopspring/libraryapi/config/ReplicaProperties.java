@@ -0,0 +1,37 @@
+package com.workshopspring.libraryapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Read replica for read-only transactions. Routing is off unless {@code url} is set; the pool takes the
+ * spring.datasource.hikari.* settings of the primary except where overridden here.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.datasource.replica")
+public class ReplicaProperties {
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    private Integer maximumPoolSize;
+
+    /**
+     * Kept short so a replica that stops answering costs little before reads fall back to the primary.
+     */
+    private Duration connectionTimeout = Duration.ofMillis(500);
+
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    /**
+     * How long a client reads from the primary after its own write; set it above the usual replication lag.
+     */
+    private Duration stickiness = Duration.ofSeconds(5);
+}
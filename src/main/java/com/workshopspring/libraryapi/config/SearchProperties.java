@@ -0,0 +1,28 @@
+package com.workshopspring.libraryapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.search")
+public class SearchProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Where index generations are written; kept on the heap when unset. The index is rebuilt from the
+     * table on startup either way, so the directory only moves it off the heap.
+     */
+    private Path directory;
+
+    /**
+     * Threads reading and indexing id ranges in parallel during a rebuild.
+     */
+    private int rebuildThreads = Runtime.getRuntime().availableProcessors();
+
+    private int maxResults = 100;
+}
@@ -0,0 +1,57 @@
+package com.workshopspring.libraryapi.config;
+
+import com.github.benmanes.caffeine.jcache.CacheManagerImpl;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.Properties;
+
+/**
+ * Hands Hibernate a JCache manager whose regions are built from {@link SecondLevelCacheProperties}. The manager is
+ * private to this context and closed by Hibernate with the session factory. Turning the cache off has to be
+ * explicit, since Hibernate would otherwise pick up the JCache region factory on its own.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    private static final URI CACHE_MANAGER_URI = URI.create("library-second-level-cache");
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(SecondLevelCacheProperties properties) {
+        return hibernate -> {
+            hibernate.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, properties.isEnabled());
+            hibernate.put(AvailableSettings.USE_QUERY_CACHE, properties.isEnabled());
+            if (!properties.isEnabled()) return;
+            hibernate.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernate.put(ConfigSettings.CACHE_MANAGER, cacheManager(properties));
+            hibernate.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CacheManager cacheManager(SecondLevelCacheProperties properties) {
+        var provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        var cacheManager = new CacheManagerImpl(provider, CACHE_MANAGER_URI,
+                SecondLevelCacheConfig.class.getClassLoader(), new Properties());
+        properties.getRegions().forEach((name, region) -> cacheManager.createCache(name, configuration(region)));
+        return cacheManager;
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuration(SecondLevelCacheProperties.Region region) {
+        var configuration = new CaffeineConfiguration<Object, Object>();
+        configuration.setStoreByValue(false);
+        configuration.setMaximumSize(OptionalLong.of(region.getMaximumSize()));
+        if (region.getExpireAfterWrite() != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(region.getExpireAfterWrite().toNanos()));
+        }
+        return configuration;
+    }
+}
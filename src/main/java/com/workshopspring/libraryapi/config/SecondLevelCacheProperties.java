@@ -0,0 +1,35 @@
+package com.workshopspring.libraryapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hibernate second-level entity cache and query cache, held in local Caffeine caches behind JCache. Every region
+ * Hibernate asks for must be listed under {@code regions}; an unlisted one fails startup rather than growing
+ * without bound.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.second-level-cache")
+public class SecondLevelCacheProperties {
+
+    private boolean enabled = true;
+
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Data
+    public static class Region {
+
+        private long maximumSize = 10_000;
+
+        /**
+         * Unset keeps entries until evicted by size, as the update timestamps region needs.
+         */
+        private Duration expireAfterWrite;
+    }
+}
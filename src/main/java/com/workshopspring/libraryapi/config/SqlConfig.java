@@ -0,0 +1,45 @@
+package com.workshopspring.libraryapi.config;
+
+import com.workshopspring.libraryapi.sql.StatementBudgetFilter;
+import com.workshopspring.libraryapi.sql.StatementRecordingListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Puts a datasource-proxy in front of every DataSource bean so statements can be counted and timed. The pool stays
+ * reachable through {@code unwrap}, which is how Boot's pool metrics find it.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "library.sql", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlConfig {
+
+    @Bean
+    public static BeanPostProcessor statementRecordingDataSourcePostProcessor(ObjectProvider<SqlProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource)) return bean;
+                return ProxyDataSourceBuilder.create((DataSource) bean)
+                        .name(beanName)
+                        .listener(new StatementRecordingListener(properties.getObject().getSlowStatementThreshold()))
+                        .build();
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<StatementBudgetFilter> statementBudgetFilter(SqlProperties properties) {
+        var registration = new FilterRegistrationBean<>(new StatementBudgetFilter(properties));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,29 @@
+package com.workshopspring.libraryapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.sql")
+public class SqlProperties {
+
+    /**
+     * Wraps the data source in a recording proxy. Off removes the proxy and the per-request budget check.
+     */
+    private boolean enabled = true;
+
+    private int maxStatementsPerRequest = 10;
+
+    private Duration maxStatementTimePerRequest = Duration.ofMillis(250);
+
+    /**
+     * A statement executed this many times within one request is reported as a likely N+1.
+     */
+    private int repeatedStatementThreshold = 5;
+
+    private Duration slowStatementThreshold = Duration.ofMillis(100);
+}
@@ -0,0 +1,21 @@
+package com.workshopspring.libraryapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.suggest")
+public class SuggestProperties {
+
+    private boolean enabled = true;
+
+    private int maxResults = 20;
+
+    /**
+     * Values first seen after the last rebuild live in a small sorted overlay; once it holds this many the
+     * suggester is rebuilt from the table so lookups stay on the packed arrays.
+     */
+    private int rebuildAfterOverlaySize = 10_000;
+}
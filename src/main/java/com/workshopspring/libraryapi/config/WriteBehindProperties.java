@@ -0,0 +1,40 @@
+package com.workshopspring.libraryapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "library.write-behind")
+public class WriteBehindProperties {
+
+    /**
+     * When disabled every create commits its own transaction.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Creates per group-commit transaction; a full batch is flushed without waiting out the window.
+     */
+    private int maxBatchSize = 200;
+
+    /**
+     * How long the first create of a batch waits for others to join it. Every create pays up to this much extra
+     * latency, so keep it near the commit time it saves.
+     */
+    private Duration maxWait = Duration.ofMillis(2);
+
+    /**
+     * Creates waiting for a flush; beyond this callers commit on their own instead of queueing.
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * How long a create waits for its flush to start; past it the caller withdraws the create and commits on its
+     * own. A create already being flushed waits for that transaction.
+     */
+    private Duration awaitTimeout = Duration.ofSeconds(5);
+}
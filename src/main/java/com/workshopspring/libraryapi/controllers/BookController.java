@@ -1,41 +1,169 @@
 package com.workshopspring.libraryapi.controllers;
 
 import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.commands.LookupBooksCommand;
+import com.workshopspring.libraryapi.commands.PatchBookCommand;
 import com.workshopspring.libraryapi.commands.UpdateBookCommand;
-import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.config.ExportProperties;
+import com.workshopspring.libraryapi.config.HttpCacheProperties;
+import com.workshopspring.libraryapi.exceptions.ErrorResponses;
+import com.workshopspring.libraryapi.imports.CatalogueFormat;
+import com.workshopspring.libraryapi.mappers.BookMapper;
+import com.workshopspring.libraryapi.queries.BookFilter;
+import com.workshopspring.libraryapi.responses.BatchCreateResponse;
+import com.workshopspring.libraryapi.responses.BookChangesResponse;
+import com.workshopspring.libraryapi.responses.BookLookupResponse;
+import com.workshopspring.libraryapi.responses.BookPageResponse;
+import com.workshopspring.libraryapi.responses.BookResponse;
+import com.workshopspring.libraryapi.responses.BookSearchResponse;
+import com.workshopspring.libraryapi.responses.BookSuggestResponse;
+import com.workshopspring.libraryapi.services.BookChangeService;
+import com.workshopspring.libraryapi.services.BookExportService;
+import com.workshopspring.libraryapi.services.BookSearchService;
 import com.workshopspring.libraryapi.services.BookService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import javax.validation.constraints.Size;
+import java.util.List;
+import java.util.concurrent.Callable;
 
 @RestController
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/books")
 public class BookController {
 
     @Autowired
     private BookService service;
 
+    @Autowired
+    private BookExportService exportService;
+
+    @Autowired
+    private BookSearchService searchService;
+
+    @Autowired
+    private BookChangeService changeService;
+
+    @Autowired
+    private BookMapper mapper;
+
+    @Autowired
+    private HttpCacheProperties cacheProperties;
+
+    @Autowired
+    private ExportProperties exportProperties;
+
+    @Autowired
+    private ErrorResponses errors;
+
     @PostMapping
-    public ResponseEntity<Book> create(@Valid @RequestBody CreateBookCommand command) {
+    public ResponseEntity<BookResponse> create(@Valid @RequestBody CreateBookCommand command) {
         var book = service.save(command);
         var uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/id").buildAndExpand(book.getId())
                 .toUri();
-        return ResponseEntity.created(uri).body(book);
+        return ResponseEntity.created(uri).body(mapper.toResponse(book));
+    }
+
+    @PostMapping(value = "/batch")
+    public ResponseEntity<BatchCreateResponse> createAll(@RequestBody @Size(max = CreateBookCommand.MAX_BATCH,
+            message = "must not exceed {max} books") List<CreateBookCommand> commands) {
+        var response = service.saveAll(commands);
+        var status = response.hasCreated() || commands.isEmpty() ? HttpStatus.CREATED : HttpStatus.UNPROCESSABLE_ENTITY;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    @PostMapping(value = "/lookup")
+    public ResponseEntity<BookLookupResponse> lookup(@Valid @RequestBody LookupBooksCommand command) {
+        return ResponseEntity.ok(service.lookup(command));
+    }
+
+    @GetMapping
+    public ResponseEntity<BookPageResponse> list(BookFilter filter,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "20") int size,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        var page = service.findAll(filter, cursor, size);
+        var etag = ETags.of(page.getItems(), page.getNext());
+        if (ifNoneMatch != null && ETags.matches(ifNoneMatch, etag)) return notModified(etag);
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheProperties.toCacheControl()).body(page);
+    }
+
+    @GetMapping(value = "/search")
+    public ResponseEntity<BookSearchResponse> search(@RequestParam String q, @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(searchService.search(q, size));
+    }
+
+    @GetMapping(value = "/suggest")
+    public ResponseEntity<BookSuggestResponse> suggest(@RequestParam String prefix, @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(searchService.suggest(prefix, size));
+    }
+
+    @GetMapping(value = "/changes")
+    public ResponseEntity<BookChangesResponse> changes(@RequestParam(required = false) String since,
+                                                       @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(changeService.changes(since, size));
+    }
+
+    @GetMapping(value = "/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "NDJSON") CatalogueFormat format,
+                                                        HttpServletRequest request) {
+        exportTimeout(request);
+        StreamingResponseBody body = output -> exportService.export(output, format);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(format.getMediaType())).body(body);
     }
 
     @GetMapping(value = "/{id}")
-    public ResponseEntity<Book> find(@PathVariable Long id) {
-        var book = service.findById(id);
-        return ResponseEntity.ok().body(book);
+    public ResponseEntity<?> find(@PathVariable Long id,
+                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            var etag = ETags.of(service.findVersion(id));
+            if (ETags.matches(ifNoneMatch, etag)) return notModified(etag);
+        }
+        var found = service.findOne(id);
+        if (found.isEmpty()) return errors.notFound(id);
+        var book = found.get();
+        return ResponseEntity.ok().eTag(ETags.of(book)).cacheControl(cacheProperties.toCacheControl()).body(mapper.toResponse(book));
+    }
+
+    @GetMapping(value = "/isbn/{isbn}")
+    public ResponseEntity<BookResponse> findByIsbn(@PathVariable String isbn,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        var book = service.findByIsbn(isbn);
+        var etag = ETags.of(book.getId(), book.getVersion());
+        if (ifNoneMatch != null && ETags.matches(ifNoneMatch, etag)) return notModified(etag);
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheProperties.toCacheControl()).body(mapper.toResponse(book));
     }
 
     @PutMapping(value = "/{id}")
-    public ResponseEntity<Book> update(@PathVariable Long id, @Valid @RequestBody UpdateBookCommand command) {
-        var book = service.update(id, command);
-        return ResponseEntity.ok().body(book);
+    public ResponseEntity<BookResponse> update(@PathVariable Long id, @Valid @RequestBody UpdateBookCommand command,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var book = ifMatch == null
+                ? service.update(id, command)
+                : service.update(id, command, ETags.version(id, ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(book)).body(mapper.toResponse(book));
+    }
+
+    @PatchMapping(value = "/{id}")
+    public ResponseEntity<BookResponse> patch(@PathVariable Long id, @Valid @RequestBody PatchBookCommand command,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var book = service.patch(id, command, ifMatch == null ? null : ETags.version(id, ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(book)).body(mapper.toResponse(book));
     }
 
     @DeleteMapping(value = "/{id}")
@@ -43,4 +171,23 @@ public class BookController {
         service.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    private <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheProperties.toCacheControl()).build();
+    }
+
+    /**
+     * The export stream may run far longer than any other async request, so only it gets the long timeout: the
+     * interceptor sets it on this request just before the stream starts.
+     */
+    private void exportTimeout(HttpServletRequest request) {
+        var timeout = exportProperties.getTimeout().toMillis();
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(ExportProperties.class.getName(),
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest asyncRequest, Callable<T> task) {
+                        ((AsyncWebRequest) asyncRequest).setTimeout(timeout);
+                    }
+                });
+    }
 }
@@ -0,0 +1,74 @@
+package com.workshopspring.libraryapi.controllers;
+
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.exceptions.PreconditionFailedException;
+import com.workshopspring.libraryapi.responses.BookResponse;
+
+import java.util.List;
+
+/**
+ * Strong entity tags built from the {@link Book} optimistic-lock version, shared by the MVC and reactive APIs.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(Book book) {
+        return of(book.getVersion());
+    }
+
+    public static String of(Long version) {
+        return "\"" + (version == null ? 0L : version) + "\"";
+    }
+
+    /**
+     * Tags a book reached by something other than its id, such as its ISBN. A book deleted and re-created under the
+     * same ISBN starts again at version 0, so the id is part of the tag to keep the old copy from matching.
+     */
+    public static String of(Long id, Long version) {
+        return "\"" + id + "-" + (version == null ? 0L : version) + "\"";
+    }
+
+    /**
+     * Tags a list of books by hashing each id and version, so any change to a listed book changes the tag.
+     */
+    public static String of(List<BookResponse> books, String next) {
+        long hash = 0xcbf29ce484222325L;
+        for (var book : books) {
+            hash = (hash ^ book.getId()) * 0x100000001b3L;
+            hash = (hash ^ (book.getVersion() == null ? 0L : book.getVersion())) * 0x100000001b3L;
+        }
+        if (next != null) hash = (hash ^ next.hashCode()) * 0x100000001b3L;
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Weak comparison of an {@code If-None-Match} header against a tag, as required for conditional GETs.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        for (var candidate : ifNoneMatch.split(",")) {
+            var tag = candidate.trim();
+            if (tag.equals("*")) return true;
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the version the client expects, or {@code null} for {@code If-Match: *}
+     */
+    public static Long version(Object id, String ifMatch) {
+        var tag = ifMatch.trim();
+        if (tag.equals("*")) return null;
+        if (tag.length() < 2 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new PreconditionFailedException(id);
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException(id);
+        }
+    }
+}
@@ -1,16 +1,33 @@
 package com.workshopspring.libraryapi.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.workshopspring.libraryapi.isbn.Isbn;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 
 @Data
 @Entity
+@DynamicUpdate
 @NoArgsConstructor
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Book.CACHE_REGION)
+@Table(indexes = {
+        @Index(name = "idx_book_author", columnList = "author, id"),
+        @Index(name = "idx_book_title", columnList = "title"),
+        @Index(name = Book.ISBN_UNIQUE_INDEX, columnList = "isbn_key", unique = true)
+})
 public class Book {
 
+    public static final String ISBN_UNIQUE_INDEX = "uk_book_isbn";
+
+    public static final String CACHE_REGION = "book";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -22,22 +39,38 @@ public class Book {
     @Column(nullable = false)
     private String isbn;
 
+    /**
+     * Canonical ISBN-13 of {@link #isbn}, kept in sync by {@link #setIsbn(String)} and used for dedup and lookups.
+     */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "isbn_key", nullable = false)
+    private long isbnKey;
+
+    @Version
+    private Long version;
+
     public Book(String title, String author, String isbn) {
         this.title = title;
         this.author = author;
-        this.isbn = isbn;
+        this.setIsbn(isbn);
     }
 
     public Book(Long id, String title, String author, String isbn) {
         this.id = id;
         this.title = title;
         this.author = author;
-        this.isbn = isbn;
+        this.setIsbn(isbn);
 
         this.isValid();
     }
 
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+        this.isbnKey = Isbn.parse(isbn);
+    }
+
     public boolean isValid() {
-        return true;
+        return isbnKey != Isbn.INVALID;
     }
 }
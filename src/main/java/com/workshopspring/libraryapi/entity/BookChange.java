@@ -0,0 +1,61 @@
+package com.workshopspring.libraryapi.entity;
+
+import com.workshopspring.libraryapi.events.BookChangedEvent;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Outbox row written in the same transaction as the book change it describes. {@link #position} stays null until
+ * the relay publishes the row; positions are handed out in publish order, so they never have gaps a reader could
+ * skip past the way commit-order-dependent ids would.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(indexes = @Index(name = "uk_book_change_position", columnList = "feed_position", unique = true))
+public class BookChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_change_seq")
+    @SequenceGenerator(name = "book_change_seq", sequenceName = "book_change_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "feed_position")
+    private Long position;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private BookChangedEvent.Type type;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    private String title;
+
+    private String author;
+
+    private String isbn;
+
+    private Long version;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    public static BookChange of(BookChangedEvent event) {
+        var change = new BookChange();
+        change.type = event.getType();
+        change.bookId = event.getId();
+        change.occurredAt = Instant.now();
+        var book = event.getBook();
+        if (book != null) {
+            change.title = book.getTitle();
+            change.author = book.getAuthor();
+            change.isbn = book.getIsbn();
+            change.version = book.getVersion();
+        }
+        return change;
+    }
+}
@@ -0,0 +1,34 @@
+package com.workshopspring.libraryapi.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+@Data
+@Entity
+@NoArgsConstructor
+public class ImportCheckpoint {
+
+    @Id
+    private String source;
+
+    @Column(nullable = false)
+    private String fingerprint;
+
+    @Column(name = "committed_offset", nullable = false)
+    private long offset;
+
+    @Column(nullable = false)
+    private long imported;
+
+    @Column(nullable = false)
+    private long rejected;
+
+    public ImportCheckpoint(String source, String fingerprint) {
+        this.source = source;
+        this.fingerprint = fingerprint;
+    }
+}
@@ -0,0 +1,36 @@
+package com.workshopspring.libraryapi.events;
+
+import com.workshopspring.libraryapi.responses.BookResponse;
+import lombok.Value;
+
+/**
+ * Published by the book service for every write, so derived read models can follow the table. It must be
+ * published inside the write's transaction: the outbox records it there and fails without one, while the
+ * other listeners run after the transaction commits. {@code previous} holds the state before an update or
+ * delete when the service had it loaded.
+ */
+@Value
+public class BookChangedEvent {
+
+    public enum Type {
+        SAVED,
+        DELETED
+    }
+
+    Type type;
+    Long id;
+    BookResponse book;
+    BookResponse previous;
+
+    public static BookChangedEvent saved(BookResponse book) {
+        return new BookChangedEvent(Type.SAVED, book.getId(), book, null);
+    }
+
+    public static BookChangedEvent updated(BookResponse previous, BookResponse book) {
+        return new BookChangedEvent(Type.SAVED, book.getId(), book, previous);
+    }
+
+    public static BookChangedEvent deleted(Long id, BookResponse previous) {
+        return new BookChangedEvent(Type.DELETED, id, null, previous);
+    }
+}
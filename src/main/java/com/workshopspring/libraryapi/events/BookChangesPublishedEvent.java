@@ -0,0 +1,15 @@
+package com.workshopspring.libraryapi.events;
+
+import com.workshopspring.libraryapi.responses.BookChangeResponse;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One relayed batch of the change feed, in position order, for in-process consumers. Delivery is at least once.
+ */
+@Value
+public class BookChangesPublishedEvent {
+
+    List<BookChangeResponse> changes;
+}
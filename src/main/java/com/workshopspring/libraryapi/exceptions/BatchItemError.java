@@ -0,0 +1,18 @@
+package com.workshopspring.libraryapi.exceptions;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemError {
+
+    private int index;
+    private String isbn;
+    private String message;
+    private List<String> errors;
+}
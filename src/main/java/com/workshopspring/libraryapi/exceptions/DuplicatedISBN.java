@@ -4,8 +4,10 @@ import java.util.Map;
 
 public class DuplicatedISBN extends DomainException {
 
+    private static final Map<String, String> ERRORS = Map.of("ISN", "ISBN already registered!");
+
     public DuplicatedISBN(String message, String entity) {
         super(message, entity);
-        this.errors = Map.of("ISN", "ISBN already registered!");
+        this.errors = ERRORS;
     }
 }
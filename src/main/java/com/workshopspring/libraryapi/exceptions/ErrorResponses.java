@@ -0,0 +1,104 @@
+package com.workshopspring.libraryapi.exceptions;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Error responses for the expected failures, written straight to JSON bytes. Bodies that never change, such as a
+ * domain error's message and field list, are serialised once and the whole response is reused; a not-found body
+ * is spliced from fragments around the id. Everything is written with the application's ObjectMapper, so these
+ * bodies take the same shape as the ones the message converters write. Every response is counted in
+ * {@code library.api.errors}.
+ */
+@Component
+public class ErrorResponses {
+
+    public static final String ERRORS_METRIC = "library.api.errors";
+
+    private static final String NOT_FOUND_MESSAGE = "Resource not found id: ";
+    private static final String ID_MARKER = "{id}";
+
+    private MeterRegistry registry;
+    private ObjectMapper objectMapper;
+    private final byte[] notFoundPrefix;
+    private final byte[] notFoundSuffix;
+    private final Map<Class<?>, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, ResponseEntity<byte[]>> prebuilt = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ErrorResponses(MeterRegistry registry, ObjectMapper objectMapper) {
+        this.registry = registry;
+        this.objectMapper = objectMapper;
+        var template = new String(serialize(new StandardError<>(NOT_FOUND_MESSAGE + ID_MARKER)), StandardCharsets.UTF_8);
+        var marker = template.indexOf(ID_MARKER);
+        this.notFoundPrefix = template.substring(0, marker).getBytes(StandardCharsets.UTF_8);
+        this.notFoundSuffix = template.substring(marker + ID_MARKER.length()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String notFoundMessage(Object id) {
+        return NOT_FOUND_MESSAGE + id;
+    }
+
+    public ResponseEntity<byte[]> notFound(Object id) {
+        count(ResourceNotFoundException.class, HttpStatus.NOT_FOUND);
+        var value = id instanceof Number ? id.toString().getBytes(StandardCharsets.US_ASCII)
+                : JsonStringEncoder.getInstance().quoteAsUTF8(String.valueOf(id));
+        var body = new ByteArrayOutputStream(notFoundPrefix.length + value.length + notFoundSuffix.length);
+        body.writeBytes(notFoundPrefix);
+        body.writeBytes(value);
+        body.writeBytes(notFoundSuffix);
+        return json(HttpStatus.NOT_FOUND, body.toByteArray());
+    }
+
+    public ResponseEntity<byte[]> domain(DomainException e) {
+        count(e.getClass(), HttpStatus.UNPROCESSABLE_ENTITY);
+        return prebuilt.computeIfAbsent(e.getClass().getName() + '\u0000' + e.getMessage(),
+                key -> json(HttpStatus.UNPROCESSABLE_ENTITY,
+                        serialize(new StandardError<>(e.getMessage(), new ArrayList<>(e.getErrors().entrySet())))));
+    }
+
+    /**
+     * For failures whose message is a constant: the response is built on first use and shared afterwards.
+     */
+    public ResponseEntity<byte[]> constant(HttpStatus status, Exception e, String message) {
+        count(e.getClass(), status);
+        return prebuilt.computeIfAbsent(status.value() + "\u0000" + message,
+                key -> json(status, serialize(new StandardError<>(message))));
+    }
+
+    public void count(Class<?> type, HttpStatus status) {
+        counters.computeIfAbsent(type, key -> Counter.builder(ERRORS_METRIC)
+                .tag("status", String.valueOf(status.value()))
+                .tag("exception", key.getSimpleName())
+                .register(registry)).increment();
+    }
+
+    private static ResponseEntity<byte[]> json(HttpStatus status, byte[] body) {
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new ResponseEntity<>(body, headers, status);
+    }
+
+    private byte[] serialize(StandardError<?> error) {
+        try {
+            return objectMapper.writeValueAsBytes(error);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,31 +1,69 @@
 package com.workshopspring.libraryapi.exceptions;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
-import java.util.ArrayList;
-import java.util.Map;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import java.util.stream.Collectors;
 
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
 
+    private ErrorResponses responses;
+
+    @Autowired
+    public GlobalExceptionHandler(ErrorResponses responses) {
+        this.responses = responses;
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<StandardError> handleMethodArgumentNotValidException(MethodArgumentNotValidException ex) {
+        responses.count(ex.getClass(), HttpStatus.BAD_REQUEST);
         var response = new StandardError("", ex.getBindingResult().getAllErrors());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<StandardError> handleConstraintViolationException(ConstraintViolationException ex) {
+        responses.count(ex.getClass(), HttpStatus.BAD_REQUEST);
+        var messages = ex.getConstraintViolations().stream().map(ConstraintViolation::getMessage).collect(Collectors.toList());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new StandardError("", messages));
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<StandardError> handleResourceNotFoundException(ResourceNotFoundException e) {
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new StandardError(e.getMessage()));
+    public ResponseEntity<byte[]> handleResourceNotFoundException(ResourceNotFoundException e) {
+        return responses.notFound(e.getId());
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<StandardError> handlePreconditionFailedException(PreconditionFailedException e) {
+        responses.count(e.getClass(), HttpStatus.PRECONDITION_FAILED);
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(new StandardError(e.getMessage()));
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<byte[]> handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        return responses.constant(HttpStatus.CONFLICT, e, "Resource was modified concurrently");
+    }
+
+    @ExceptionHandler(SearchUnavailableException.class)
+    public ResponseEntity<StandardError> handleSearchUnavailableException(SearchUnavailableException e) {
+        responses.count(e.getClass(), HttpStatus.SERVICE_UNAVAILABLE);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new StandardError(e.getMessage()));
     }
 
     @ExceptionHandler(DomainException.class)
-    public ResponseEntity<StandardError> handleDomainException(DomainException ex) {
-        var response = new StandardError(ex.getMessage(), new ArrayList<>(ex.getErrors().entrySet()));
-        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(response);
+    public ResponseEntity<byte[]> handleDomainException(DomainException ex) {
+        return responses.domain(ex);
     }
 }
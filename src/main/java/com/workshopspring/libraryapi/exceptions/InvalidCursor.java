@@ -0,0 +1,13 @@
+package com.workshopspring.libraryapi.exceptions;
+
+import java.util.Map;
+
+public class InvalidCursor extends DomainException {
+
+    private static final Map<String, String> ERRORS = Map.of("cursor", "Cursor must come from a previous page response!");
+
+    public InvalidCursor(String message, String entity) {
+        super(message, entity);
+        this.errors = ERRORS;
+    }
+}
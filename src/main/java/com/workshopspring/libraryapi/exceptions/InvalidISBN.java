@@ -0,0 +1,13 @@
+package com.workshopspring.libraryapi.exceptions;
+
+import java.util.Map;
+
+public class InvalidISBN extends DomainException {
+
+    private static final Map<String, String> ERRORS = Map.of("isbn", "ISBN must be a valid ISBN-10 or ISBN-13!");
+
+    public InvalidISBN(String message, String entity) {
+        super(message, entity);
+        this.errors = ERRORS;
+    }
+}
@@ -0,0 +1,8 @@
+package com.workshopspring.libraryapi.exceptions;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(Object id) {
+        super("Resource was modified id: " + id, null, false, false);
+    }
+}
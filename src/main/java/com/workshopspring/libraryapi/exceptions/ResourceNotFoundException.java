@@ -1,8 +1,22 @@
 package com.workshopspring.libraryapi.exceptions;
 
+import lombok.Getter;
+
+/**
+ * Stackless, like {@link DomainException}; the message is only built when someone asks for it.
+ */
+@Getter
 public class ResourceNotFoundException extends RuntimeException {
 
+    private final transient Object id;
+
     public ResourceNotFoundException(Object id) {
-        super("Resource not found id: " + id);
+        super(null, null, false, false);
+        this.id = id;
+    }
+
+    @Override
+    public String getMessage() {
+        return ErrorResponses.notFoundMessage(id);
     }
 }
@@ -0,0 +1,8 @@
+package com.workshopspring.libraryapi.exceptions;
+
+public class SearchUnavailableException extends RuntimeException {
+
+    public SearchUnavailableException() {
+        super("Search index is not ready", null, false, false);
+    }
+}
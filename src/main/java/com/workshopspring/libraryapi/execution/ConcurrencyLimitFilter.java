@@ -0,0 +1,98 @@
+package com.workshopspring.libraryapi.execution;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshopspring.libraryapi.exceptions.StandardError;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulkhead for virtual mode: caps requests in flight and sheds the excess with 503 once it has waited
+ * for the queue timeout, instead of letting an unbounded number of threads pile up on the connection pool.
+ * A request that goes async, such as a streamed export, keeps its permit until the async request completes.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long timeoutNanos;
+    private final ObjectMapper objectMapper;
+
+    public ConcurrencyLimitFilter(int maxConcurrentRequests, Duration queueTimeout, ObjectMapper objectMapper) {
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.timeoutNanos = queueTimeout.toNanos();
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            reject(response);
+            return;
+        }
+        var async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete());
+                async = true;
+            }
+        } finally {
+            if (!async) permits.release();
+        }
+    }
+
+    int available() {
+        return permits.availablePermits();
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new StandardError<>("Too many concurrent requests"));
+    }
+
+    /**
+     * Timeouts and errors are followed by {@code onComplete} as well, so releasing there alone covers them.
+     */
+    private final class ReleaseOnComplete implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permits.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.workshopspring.libraryapi.execution;
+
+public enum ExecutionMode {
+
+    /**
+     * Requests run on Tomcat's bounded worker pool, sized by server.tomcat.threads.max.
+     */
+    PLATFORM,
+
+    /**
+     * Every request runs on its own virtual thread; needs a Java 21 runtime.
+     */
+    VIRTUAL
+}
@@ -0,0 +1,43 @@
+package com.workshopspring.libraryapi.execution;
+
+import com.workshopspring.libraryapi.config.ExecutionProperties;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.HashMap;
+
+/**
+ * In virtual mode no thread pool bounds the requests waiting on the connection pool, so unless it is set explicitly
+ * Hikari's connection timeout follows {@code library.execution.queue-timeout}: a burst past the limit fails as fast
+ * as the filter would shed it. Platform mode keeps Hikari's 30s default, under which requests queue behind
+ * Tomcat's bounded pool instead of failing. The concurrency limit likewise follows the pool size, so resizing the
+ * pool keeps the ratio.
+ */
+public class VirtualModeDefaults implements EnvironmentPostProcessor {
+
+    static final String CONNECTION_TIMEOUT = "spring.datasource.hikari.connection-timeout";
+    static final String MAXIMUM_POOL_SIZE = "spring.datasource.hikari.maximum-pool-size";
+    static final String MAX_CONCURRENT_REQUESTS = "library.execution.max-concurrent-requests";
+
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+    private static final int REQUESTS_PER_CONNECTION = 4;
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        var properties = Binder.get(environment).bindOrCreate("library.execution", ExecutionProperties.class);
+        if (properties.getMode() != ExecutionMode.VIRTUAL) return;
+        var defaults = new HashMap<String, Object>();
+        if (!environment.containsProperty(CONNECTION_TIMEOUT)) {
+            defaults.put(CONNECTION_TIMEOUT, Long.toString(properties.getQueueTimeout().toMillis()));
+        }
+        if (!environment.containsProperty(MAX_CONCURRENT_REQUESTS)) {
+            var poolSize = environment.getProperty(MAXIMUM_POOL_SIZE, Integer.class, HIKARI_DEFAULT_POOL_SIZE);
+            defaults.put(MAX_CONCURRENT_REQUESTS, Integer.toString(poolSize * REQUESTS_PER_CONNECTION));
+        }
+        if (defaults.isEmpty()) return;
+        environment.getPropertySources().addLast(new MapPropertySource("virtualModeDefaults", defaults));
+    }
+}
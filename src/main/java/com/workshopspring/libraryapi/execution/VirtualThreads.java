@@ -0,0 +1,46 @@
+package com.workshopspring.libraryapi.execution;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Reaches the Java 21 virtual thread API by reflection, so the code still compiles for the Java 11 baseline.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return an executor starting a new virtual thread, named {@code prefix<n>}, for each task
+     * @throws IllegalStateException when the runtime has no virtual threads
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later, running on " + Runtime.version());
+        }
+        try {
+            var builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            var builderType = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            var factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("Virtual thread API not usable on " + Runtime.version(), e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Could not create a virtual thread executor", e.getCause());
+        }
+    }
+}
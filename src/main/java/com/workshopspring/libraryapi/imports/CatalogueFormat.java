@@ -0,0 +1,26 @@
+package com.workshopspring.libraryapi.imports;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+public enum CatalogueFormat {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    CatalogueFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static CatalogueFormat of(Path file) {
+        var name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) return CSV;
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) return NDJSON;
+        throw new IllegalArgumentException("Unsupported catalogue file: " + file);
+    }
+}
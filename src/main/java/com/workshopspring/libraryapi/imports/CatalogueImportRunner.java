@@ -0,0 +1,27 @@
+package com.workshopspring.libraryapi.imports;
+
+import com.workshopspring.libraryapi.config.ImportProperties;
+import com.workshopspring.libraryapi.services.BookImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+@Component
+@ConditionalOnProperty(prefix = "library.import", name = "file")
+public class CatalogueImportRunner implements ApplicationRunner {
+
+    @Autowired
+    private BookImportService importService;
+
+    @Autowired
+    private ImportProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        importService.importFile(Path.of(properties.getFile()));
+    }
+}
@@ -0,0 +1,117 @@
+package com.workshopspring.libraryapi.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Turns one catalogue record into a {@link CreateBookCommand}. Malformed records raise an
+ * {@link IllegalArgumentException} and are counted as rejected rows by the import.
+ */
+public interface CatalogueParser {
+
+    CreateBookCommand parse(String record);
+
+    /**
+     * Whether the lines read so far form a whole record. A CSV record whose quoted field holds a line break goes on
+     * over the following lines.
+     */
+    default boolean isComplete(String record) {
+        return true;
+    }
+
+    /**
+     * @param header first line of the file, only used by CSV to locate the title, author and isbn columns
+     */
+    static CatalogueParser of(CatalogueFormat format, String header, ObjectMapper objectMapper) {
+        if (format == CatalogueFormat.NDJSON) return new Ndjson(objectMapper.readerFor(CreateBookCommand.class));
+        return new Csv(header);
+    }
+
+    class Ndjson implements CatalogueParser {
+
+        private final ObjectReader reader;
+
+        Ndjson(ObjectReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public CreateBookCommand parse(String record) {
+            try {
+                return reader.readValue(record);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Malformed JSON record", e);
+            }
+        }
+    }
+
+    class Csv implements CatalogueParser {
+
+        private final int title;
+        private final int author;
+        private final int isbn;
+
+        Csv(String header) {
+            if (header == null) throw new IllegalArgumentException("CSV catalogue without header");
+            var columns = Arrays.asList(header.toLowerCase(Locale.ROOT).split(","));
+            this.title = columns.indexOf("title");
+            this.author = columns.indexOf("author");
+            this.isbn = columns.indexOf("isbn");
+            if (title < 0 || author < 0 || isbn < 0) {
+                throw new IllegalArgumentException("CSV header must declare title, author and isbn: " + header);
+            }
+        }
+
+        @Override
+        public boolean isComplete(String record) {
+            var quotes = 0;
+            for (int i = 0; i < record.length(); i++) if (record.charAt(i) == '"') quotes++;
+            return quotes % 2 == 0;
+        }
+
+        @Override
+        public CreateBookCommand parse(String record) {
+            var fields = split(record);
+            if (fields.size() <= Math.max(title, Math.max(author, isbn))) {
+                throw new IllegalArgumentException("Missing CSV columns");
+            }
+            return new CreateBookCommand(fields.get(title), fields.get(author), fields.get(isbn));
+        }
+
+        private List<String> split(String line) {
+            var fields = new ArrayList<String>(3);
+            var field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString().trim());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) throw new IllegalArgumentException("Unterminated CSV quote");
+            fields.add(field.toString().trim());
+            return fields;
+        }
+    }
+}
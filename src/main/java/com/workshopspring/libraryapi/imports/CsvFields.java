@@ -0,0 +1,17 @@
+package com.workshopspring.libraryapi.imports;
+
+public final class CsvFields {
+
+    private CsvFields() {
+    }
+
+    /**
+     * @return the value itself, or wrapped in quotes with inner quotes doubled when it holds a comma,
+     * quote or line break
+     */
+    public static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,27 @@
+package com.workshopspring.libraryapi.imports;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class ImportReport {
+
+    private String source;
+    private long resumedFrom;
+    private long committedOffset;
+    private long read;
+    private long imported;
+    private long rejected;
+    private long elapsedMillis;
+
+    public ImportReport(String source, long resumedFrom) {
+        this.source = source;
+        this.resumedFrom = resumedFrom;
+        this.committedOffset = resumedFrom;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? 0 : read * 1000.0 / elapsedMillis;
+    }
+}
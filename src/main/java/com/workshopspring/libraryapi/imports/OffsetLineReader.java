@@ -0,0 +1,82 @@
+package com.workshopspring.libraryapi.imports;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads UTF-8 lines from a file channel while tracking the byte offset of the next line, so an import can
+ * record exactly where it stopped and seek back there after a restart.
+ */
+public class OffsetLineReader implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private byte[] line = new byte[256];
+    private long offset;
+    private String terminator = "";
+
+    public OffsetLineReader(FileChannel channel, long start, int bufferSize) throws IOException {
+        this.channel = channel.position(start);
+        this.buffer = ByteBuffer.allocate(bufferSize).flip();
+        this.offset = start;
+    }
+
+    /**
+     * Returns the next line without its terminator, or {@code null} at the end of the file.
+     */
+    public String readLine() throws IOException {
+        int length = 0;
+        boolean terminated = false;
+        while (!terminated) {
+            if (!buffer.hasRemaining() && !fill()) break;
+            byte b = buffer.get();
+            offset++;
+            if (b == '\n') {
+                terminated = true;
+            } else {
+                if (length == line.length) line = Arrays.copyOf(line, length * 2);
+                line[length++] = b;
+            }
+        }
+        if (!terminated && length == 0) return null;
+        terminator = terminated ? "\n" : "";
+        if (terminated && length > 0 && line[length - 1] == '\r') {
+            length--;
+            terminator = "\r\n";
+        }
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The terminator stripped from the last line read, empty when it ended the file.
+     */
+    public String getTerminator() {
+        return terminator;
+    }
+
+    public void seek(long position) throws IOException {
+        channel.position(position);
+        buffer.clear().flip();
+        offset = position;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int read = channel.read(buffer);
+        buffer.flip();
+        return read > 0;
+    }
+}
@@ -0,0 +1,51 @@
+package com.workshopspring.libraryapi.index;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over pre-computed 64-bit hashes. Bits are only ever set, so readers never block and a
+ * {@code false} from {@link #mightContain(long)} is always definitive.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        var n = Math.max(1, expectedInsertions);
+        var m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE, (m + 63) >>> 6));
+        this.bits = (long) words.length() << 6;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+    }
+
+    public void put(long hash) {
+        var h1 = (int) hash;
+        var h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; i++) {
+            var bit = Integer.toUnsignedLong(h1 + i * h2) % bits;
+            var index = (int) (bit >>> 6);
+            var mask = 1L << bit;
+            long word;
+            do {
+                word = words.get(index);
+                if ((word & mask) != 0) break;
+            } while (!words.compareAndSet(index, word, word | mask));
+        }
+    }
+
+    public boolean mightContain(long hash) {
+        var h1 = (int) hash;
+        var h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; i++) {
+            var bit = Integer.toUnsignedLong(h1 + i * h2) % bits;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    public long sizeInBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+}
@@ -0,0 +1,116 @@
+package com.workshopspring.libraryapi.index;
+
+import com.workshopspring.libraryapi.config.IsbnIndexProperties;
+import com.workshopspring.libraryapi.repositories.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory membership filter of every registered ISBN-13 key, warmed from the book table on startup. A negative
+ * answer means the ISBN is certainly free and lets callers skip the {@code existsByIsbnKey} query; a positive answer
+ * still has to be confirmed by the database. Until warming completes every ISBN is reported as possibly present.
+ */
+@Slf4j
+@Component
+public class IsbnIndex {
+
+    private BookRepository repository;
+    private IsbnIndexProperties properties;
+    private TransactionTemplate transaction;
+    private TaskExecutor executor;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter rebuilding;
+    private volatile boolean ready;
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+
+    @Autowired
+    public IsbnIndex(BookRepository repository, IsbnIndexProperties properties, TransactionTemplate transaction,
+                     TaskExecutor executor) {
+        this.repository = repository;
+        this.properties = properties;
+        this.transaction = transaction;
+        this.executor = executor;
+        this.filter = new BloomFilter(properties.getExpectedInsertions(), properties.getFalsePositiveRate());
+    }
+
+    public boolean mightContain(long isbnKey) {
+        return !ready || filter.mightContain(hash(isbnKey));
+    }
+
+    public void add(long isbnKey) {
+        var hash = hash(isbnKey);
+        filter.put(hash);
+        var next = rebuilding;
+        if (next != null) next.put(hash);
+        indexed.incrementAndGet();
+    }
+
+    /**
+     * Bloom filters cannot forget a key, so deletions only leave stale bits that fall back to the database.
+     * Once they pile up the filter is rebuilt from the table in the background.
+     */
+    public void removed() {
+        if (ready && deleted.incrementAndGet() > indexed.get() * properties.getRebuildAfterDeletedRatio()) {
+            executor.execute(this::rebuild);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        if (properties.isEnabled()) executor.execute(this::rebuild);
+    }
+
+    /**
+     * Builds a fresh filter from the table and swaps it in. ISBNs added while the scan runs go to both filters.
+     */
+    public void rebuild() {
+        if (!building.compareAndSet(false, true)) return;
+        try {
+            var expected = Math.max(properties.getExpectedInsertions(), repository.count() * 2);
+            var next = new BloomFilter(expected, properties.getFalsePositiveRate());
+            rebuilding = next;
+            var count = new AtomicLong();
+            transaction.executeWithoutResult(status -> {
+                try (var isbnKeys = repository.streamAllIsbnKeys()) {
+                    isbnKeys.forEach(isbnKey -> {
+                        next.put(hash(isbnKey));
+                        count.incrementAndGet();
+                    });
+                }
+            });
+            filter = next;
+            indexed.set(count.get());
+            deleted.set(0);
+            ready = true;
+            log.info("ISBN index built with {} entries ({} KB)", count.get(), next.sizeInBytes() / 1024);
+        } finally {
+            rebuilding = null;
+            building.set(false);
+        }
+    }
+
+    static long hash(long isbnKey) {
+        long hash = isbnKey;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,77 @@
+package com.workshopspring.libraryapi.isbn;
+
+/**
+ * ISBN-10/13 parsing into a canonical ISBN-13 {@code long} key. Parsing walks the characters once, accepts
+ * hyphens and spaces as separators, validates the check digit and allocates nothing, so it can run on every
+ * create and lookup.
+ */
+public final class Isbn {
+
+    public static final long INVALID = -1L;
+
+    private static final long BOOKLAND_978 = 978_000_000_000_0L;
+
+    private Isbn() {
+    }
+
+    /**
+     * @return the ISBN-13 of {@code value} as a number, or {@link #INVALID} when it is not a valid ISBN-10/13
+     */
+    public static long parse(CharSequence value) {
+        if (value == null) return INVALID;
+        int digits = 0;
+        long number = 0;
+        int sum10 = 0;
+        int sum13 = 0;
+        boolean tenthIsX = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '-' || c == ' ') continue;
+            if (tenthIsX) return INVALID;
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if ((c == 'X' || c == 'x') && digits == 9) {
+                digit = 10;
+                tenthIsX = true;
+            } else {
+                return INVALID;
+            }
+            if (digits == 13) return INVALID;
+            if (digits < 10) sum10 += (10 - digits) * digit;
+            sum13 += (digits % 2 == 0 ? 1 : 3) * digit;
+            if (digits < 9 || digit < 10) number = number * 10 + digit;
+            digits++;
+        }
+        if (digits == 13) {
+            var prefix = number / 10_000_000_000L;
+            return sum13 % 10 == 0 && (prefix == 978 || prefix == 979) ? number : INVALID;
+        }
+        if (digits == 10 && sum10 % 11 == 0) {
+            var body = tenthIsX ? number : number / 10;
+            return BOOKLAND_978 + body * 10 + checkDigit13(BOOKLAND_978 / 10 + body);
+        }
+        return INVALID;
+    }
+
+    public static boolean isValid(CharSequence value) {
+        return parse(value) != INVALID;
+    }
+
+    public static String format(long key) {
+        return Long.toString(key);
+    }
+
+    /**
+     * Computes the ISBN-13 check digit of the first twelve digits.
+     */
+    public static int checkDigit13(long twelveDigits) {
+        int sum = 0;
+        for (int position = 11; position >= 0; position--) {
+            int digit = (int) (twelveDigits % 10);
+            sum += (position % 2 == 0 ? 1 : 3) * digit;
+            twelveDigits /= 10;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
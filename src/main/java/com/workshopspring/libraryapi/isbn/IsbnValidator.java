@@ -0,0 +1,12 @@
+package com.workshopspring.libraryapi.isbn;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+public class IsbnValidator implements ConstraintValidator<ValidIsbn, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        return value == null || value.length() == 0 || Isbn.isValid(value);
+    }
+}
@@ -0,0 +1,197 @@
+package com.workshopspring.libraryapi.loading;
+
+import com.workshopspring.libraryapi.config.BookLoaderProperties;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.repositories.BookRepository;
+import com.workshopspring.libraryapi.routing.ReadYourWrites;
+import com.workshopspring.libraryapi.routing.ReplicaReads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Collapses concurrent lookups by id. Callers asking for an id that is already being loaded wait for that
+ * load instead of issuing their own query; distinct ids arriving within the batch window are fetched together
+ * with one {@code findAllById}. The first caller of a batch runs its query on its own thread, so there is no
+ * dispatcher thread to queue behind, and joining a batch or an in-flight load takes no lock.
+ */
+@Component
+public class BookLoader {
+
+    private static final int SEALED = Integer.MAX_VALUE / 2;
+
+    private final BookRepository repository;
+    private final BookLoaderProperties properties;
+
+    private final ConcurrentHashMap<Long, CompletableFuture<Loaded>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicReference<Batch> open = new AtomicReference<>();
+
+    private final Counter lookups;
+    private final Counter coalesced;
+    private final Counter queries;
+    private final DistributionSummary batchSize;
+
+    @Autowired
+    public BookLoader(BookRepository repository, BookLoaderProperties properties, MeterRegistry registry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.lookups = registry.counter("library.book.loader.lookups");
+        this.coalesced = registry.counter("library.book.loader.coalesced");
+        this.queries = registry.counter("library.book.loader.queries");
+        this.batchSize = DistributionSummary.builder("library.book.loader.batch.size")
+                .description("Distinct ids fetched per query")
+                .register(registry);
+        Gauge.builder("library.book.loader.coalescing.ratio", this, BookLoader::coalescingRatio)
+                .description("Lookups served per database query")
+                .register(registry);
+    }
+
+    /**
+     * Afterwards {@link ReplicaReads#isServed()} tells whether the book came from the replica, also when another
+     * caller's query fetched it. A thread pinned to the primary loads on its own, so it never waits for a batch
+     * that reads the replica.
+     */
+    public Optional<Book> load(Long id) {
+        ReplicaReads.clear();
+        if (!properties.isEnabled() || ReadYourWrites.isPinned()) return repository.findById(id);
+
+        lookups.increment();
+        var future = new CompletableFuture<Loaded>();
+        var loading = inFlight.putIfAbsent(id, future);
+        if (loading != null) {
+            coalesced.increment();
+            return await(loading);
+        }
+        var batch = enqueue(new Pending(id, future));
+        if (batch != null) dispatch(batch);
+        return await(future);
+    }
+
+    double coalescingRatio() {
+        var count = queries.count();
+        return count == 0 ? 0 : lookups.count() / count;
+    }
+
+    /**
+     * Claims a slot in the open batch, or opens a new one. Returns the batch when the caller opened it and
+     * therefore has to dispatch it.
+     */
+    private Batch enqueue(Pending pending) {
+        var capacity = properties.getMaxBatchSize();
+        while (true) {
+            var batch = open.get();
+            if (batch != null) {
+                var slot = batch.size.getAndIncrement();
+                if (slot < capacity) {
+                    batch.entries.set(slot, pending);
+                    if (slot == capacity - 1) LockSupport.unpark(batch.leader);
+                    return null;
+                }
+                open.compareAndSet(batch, null);
+                continue;
+            }
+            var fresh = new Batch(capacity, pending);
+            if (capacity == 1 || open.compareAndSet(null, fresh)) return fresh;
+        }
+    }
+
+    private void dispatch(Batch batch) {
+        var capacity = batch.entries.length();
+        var deadline = System.nanoTime() + properties.getBatchWindow().toNanos();
+        for (long left; batch.size.get() < capacity && (left = deadline - System.nanoTime()) > 0; ) {
+            LockSupport.parkNanos(this, left);
+        }
+        open.compareAndSet(batch, null);
+        var claimed = Math.min(batch.size.getAndSet(SEALED), capacity);
+
+        var pending = new ArrayList<Pending>(claimed);
+        var ids = new ArrayList<Long>(claimed);
+        for (int i = 0; i < claimed; i++) {
+            Pending entry;
+            while ((entry = batch.entries.get(i)) == null) Thread.onSpinWait();
+            pending.add(entry);
+            ids.add(entry.id);
+        }
+
+        queries.increment();
+        batchSize.record(claimed);
+        try {
+            var found = new HashMap<Long, Book>(claimed * 2);
+            for (var book : repository.findAllById(ids)) found.put(book.getId(), book);
+            var replica = ReplicaReads.isServed();
+            for (var entry : pending) {
+                inFlight.remove(entry.id, entry.future);
+                entry.future.complete(new Loaded(Optional.ofNullable(found.get(entry.id)), replica));
+            }
+        } catch (Throwable e) {
+            for (var entry : pending) {
+                inFlight.remove(entry.id, entry.future);
+                entry.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private Optional<Book> await(CompletableFuture<Loaded> future) {
+        try {
+            var loaded = future.join();
+            if (loaded.replica) ReplicaReads.mark();
+            return loaded.book;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    private static final class Loaded {
+
+        final Optional<Book> book;
+        final boolean replica;
+
+        Loaded(Optional<Book> book, boolean replica) {
+            this.book = book;
+            this.replica = replica;
+        }
+    }
+
+    private static final class Pending {
+
+        final Long id;
+        final CompletableFuture<Loaded> future;
+
+        Pending(Long id, CompletableFuture<Loaded> future) {
+            this.id = id;
+            this.future = future;
+        }
+    }
+
+    /**
+     * Slots are claimed with an atomic counter and filled afterwards; the dispatcher seals the counter and
+     * waits for the claimed slots to be filled before reading them.
+     */
+    private static final class Batch {
+
+        final Thread leader = Thread.currentThread();
+        final AtomicInteger size = new AtomicInteger(1);
+        final AtomicReferenceArray<Pending> entries;
+
+        Batch(int capacity, Pending first) {
+            entries = new AtomicReferenceArray<>(capacity);
+            entries.set(0, first);
+        }
+    }
+}
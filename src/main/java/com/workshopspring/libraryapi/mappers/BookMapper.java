@@ -0,0 +1,12 @@
+package com.workshopspring.libraryapi.mappers;
+
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.responses.BookResponse;
+
+public interface BookMapper {
+
+    Book toEntity(CreateBookCommand command);
+
+    BookResponse toResponse(Book book);
+}
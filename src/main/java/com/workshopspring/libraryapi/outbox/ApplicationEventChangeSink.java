@@ -0,0 +1,28 @@
+package com.workshopspring.libraryapi.outbox;
+
+import com.workshopspring.libraryapi.events.BookChangesPublishedEvent;
+import com.workshopspring.libraryapi.responses.BookChangeResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Hands each batch to in-process {@code @EventListener}s of {@link BookChangesPublishedEvent}.
+ */
+@Component
+public class ApplicationEventChangeSink implements BookChangeSink {
+
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    public ApplicationEventChangeSink(ApplicationEventPublisher events) {
+        this.events = events;
+    }
+
+    @Override
+    public void publish(List<BookChangeResponse> changes) {
+        events.publishEvent(new BookChangesPublishedEvent(List.copyOf(changes)));
+    }
+}
@@ -0,0 +1,35 @@
+package com.workshopspring.libraryapi.outbox;
+
+import com.workshopspring.libraryapi.config.OutboxProperties;
+import com.workshopspring.libraryapi.entity.BookChange;
+import com.workshopspring.libraryapi.events.BookChangedEvent;
+import com.workshopspring.libraryapi.repositories.BookChangeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes the outbox row for every book change. This is a plain, synchronous listener on purpose: it runs inside
+ * the service's transaction, so the row commits or rolls back together with the change, and a write outside a
+ * transaction fails instead of silently producing an unpaired row.
+ */
+@Component
+public class BookChangeOutbox {
+
+    private BookChangeRepository repository;
+    private OutboxProperties properties;
+
+    @Autowired
+    public BookChangeOutbox(BookChangeRepository repository, OutboxProperties properties) {
+        this.repository = repository;
+        this.properties = properties;
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(BookChangedEvent event) {
+        if (properties.isEnabled()) repository.save(BookChange.of(event));
+    }
+}
@@ -0,0 +1,114 @@
+package com.workshopspring.libraryapi.outbox;
+
+import com.workshopspring.libraryapi.config.OutboxProperties;
+import com.workshopspring.libraryapi.events.BookChangedEvent;
+import com.workshopspring.libraryapi.repositories.BookChangeRepository;
+import com.workshopspring.libraryapi.responses.BookChangeResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves outbox rows to the sinks in batches on a single background thread. Each batch gets the next feed
+ * positions and is handed to every sink inside one transaction, so a failing sink leaves the whole batch pending.
+ * Commits wake the relay straight away; the poll interval is the fallback. Positions are taken as max + 1, which
+ * assumes one relay per database: a second instance would hit the unique index and retry its batch.
+ */
+@Slf4j
+@Component
+public class BookChangeRelay {
+
+    private BookChangeRepository repository;
+    private List<BookChangeSink> sinks;
+    private OutboxProperties properties;
+    private TransactionTemplate transaction;
+    private Counter published;
+
+    private volatile ScheduledExecutorService scheduler;
+    private final AtomicBoolean wakeQueued = new AtomicBoolean();
+
+    @Autowired
+    public BookChangeRelay(BookChangeRepository repository, List<BookChangeSink> sinks, OutboxProperties properties,
+                           TransactionTemplate transaction, MeterRegistry registry) {
+        this.repository = repository;
+        this.sinks = sinks;
+        this.properties = properties;
+        this.transaction = transaction;
+        this.published = Counter.builder("library.outbox.published").register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) return;
+        var interval = properties.getPollInterval().toMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("outbox-relay-"));
+        scheduler.scheduleWithFixedDelay(this::drainQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        var current = scheduler;
+        if (current == null || !wakeQueued.compareAndSet(false, true)) return;
+        current.execute(() -> {
+            wakeQueued.set(false);
+            drainQuietly();
+        });
+    }
+
+    /**
+     * Publishes pending rows until none are left and returns how many went out.
+     */
+    public synchronized int drain() {
+        int total = 0, count;
+        do {
+            count = transaction.execute(status -> relayBatch());
+            total += count;
+        } while (count == properties.getBatchSize());
+        return total;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+
+    private int relayBatch() {
+        var batch = repository.findByPositionIsNullOrderById(PageRequest.of(0, properties.getBatchSize()));
+        if (batch.isEmpty()) return 0;
+        long position = repository.findMaxPosition().orElse(0L);
+        var changes = new ArrayList<BookChangeResponse>(batch.size());
+        for (var change : batch) {
+            change.setPosition(++position);
+            changes.add(BookChangeResponse.of(change));
+        }
+        // claim the positions before anything leaves the process
+        repository.flush();
+        for (var sink : sinks) sink.publish(changes);
+        published.increment(changes.size());
+        return changes.size();
+    }
+
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay failed, retrying on the next poll", e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.workshopspring.libraryapi.outbox;
+
+import com.workshopspring.libraryapi.responses.BookChangeResponse;
+
+import java.util.List;
+
+/**
+ * Destination of the change feed. Each relayed batch arrives in position order before the relay commits it; a
+ * sink that throws leaves the batch pending and it is offered again, so sinks see every change at least once.
+ */
+public interface BookChangeSink {
+
+    void publish(List<BookChangeResponse> changes);
+}
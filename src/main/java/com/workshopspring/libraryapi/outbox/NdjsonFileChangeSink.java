@@ -0,0 +1,51 @@
+package com.workshopspring.libraryapi.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshopspring.libraryapi.responses.BookChangeResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends every change to a local file as one JSON line. A batch is written with a single append and forced to
+ * disk once, so the sync cost is paid per batch rather than per change.
+ */
+public class NdjsonFileChangeSink implements BookChangeSink {
+
+    private static final int LINE_SIZE_HINT = 192;
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public NdjsonFileChangeSink(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void publish(List<BookChangeResponse> changes) {
+        try {
+            var lines = new ByteArrayOutputStream(changes.size() * LINE_SIZE_HINT);
+            for (var change : changes) {
+                lines.write(objectMapper.writeValueAsBytes(change));
+                lines.write('\n');
+            }
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                var buffer = ByteBuffer.wrap(lines.toByteArray());
+                while (buffer.hasRemaining()) channel.write(buffer);
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.workshopspring.libraryapi.queries;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Book fields a caller can pick for a partial response.
+ */
+public enum BookField {
+    @JsonProperty("id") ID,
+    @JsonProperty("title") TITLE,
+    @JsonProperty("author") AUTHOR,
+    @JsonProperty("isbn") ISBN,
+    @JsonProperty("version") VERSION
+}
@@ -0,0 +1,15 @@
+package com.workshopspring.libraryapi.queries;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookFilter {
+
+    private String author;
+    private String titlePrefix;
+    private String isbn;
+}
@@ -0,0 +1,30 @@
+package com.workshopspring.libraryapi.queries;
+
+import com.workshopspring.libraryapi.exceptions.InvalidCursor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the id of the last book of the previous page, so the next page starts with
+ * {@code id > cursor} instead of skipping rows with OFFSET.
+ */
+public final class PageCursor {
+
+    private PageCursor() {
+    }
+
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) return 0L;
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursor("Invalid page cursor", "Book");
+        }
+    }
+}
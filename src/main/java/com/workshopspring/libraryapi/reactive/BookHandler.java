@@ -0,0 +1,313 @@
+package com.workshopspring.libraryapi.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.commands.LookupBooksCommand;
+import com.workshopspring.libraryapi.commands.PatchBookCommand;
+import com.workshopspring.libraryapi.commands.UpdateBookCommand;
+import com.workshopspring.libraryapi.config.HttpCacheProperties;
+import com.workshopspring.libraryapi.controllers.ETags;
+import com.workshopspring.libraryapi.exceptions.DomainException;
+import com.workshopspring.libraryapi.exceptions.PreconditionFailedException;
+import com.workshopspring.libraryapi.exceptions.ResourceNotFoundException;
+import com.workshopspring.libraryapi.exceptions.StandardError;
+import com.workshopspring.libraryapi.imports.CatalogueFormat;
+import com.workshopspring.libraryapi.imports.CsvFields;
+import com.workshopspring.libraryapi.queries.BookFilter;
+import com.workshopspring.libraryapi.responses.BookResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindException;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Validator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * WebFlux handlers with the same contract as {@link com.workshopspring.libraryapi.controllers.BookController},
+ * errors included.
+ */
+@Component
+@Profile("reactive")
+public class BookHandler {
+
+    /**
+     * Rows encoded into one buffer when streaming, so the network sees chunks rather than one write per book.
+     */
+    private static final int STREAM_CHUNK = 256;
+    private static final ParameterizedTypeReference<List<CreateBookCommand>> BATCH = new ParameterizedTypeReference<>() {
+    };
+    private static final byte[] CSV_HEADER = "id,title,author,isbn\n".getBytes(StandardCharsets.UTF_8);
+
+    private ReactiveBookService service;
+    private SpringValidatorAdapter validator;
+    private ObjectWriter bookWriter;
+    private HttpCacheProperties cacheProperties;
+
+    @Autowired
+    public BookHandler(ReactiveBookService service, Validator validator, ObjectMapper objectMapper,
+                       HttpCacheProperties cacheProperties) {
+        this.service = service;
+        this.validator = new SpringValidatorAdapter(validator);
+        this.bookWriter = objectMapper.writerFor(BookResponse.class);
+        this.cacheProperties = cacheProperties;
+    }
+
+    public Mono<ServerResponse> create(ServerRequest request) {
+        return body(request, CreateBookCommand.class)
+                .flatMap(service::save)
+                .flatMap(book -> ServerResponse
+                        .created(request.uriBuilder().path("/{id}").build(book.getId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(book.toResponse()))
+                .onErrorResume(this::error);
+    }
+
+    public Mono<ServerResponse> createAll(ServerRequest request) {
+        return request.bodyToMono(BATCH).defaultIfEmpty(List.of())
+                .flatMap(commands -> commands.size() > CreateBookCommand.MAX_BATCH
+                        ? error(HttpStatus.BAD_REQUEST, new StandardError<>("",
+                                List.of("must not exceed " + CreateBookCommand.MAX_BATCH + " books")))
+                        : createAll(commands))
+                .onErrorResume(this::error);
+    }
+
+    public Mono<ServerResponse> lookup(ServerRequest request) {
+        return body(request, LookupBooksCommand.class)
+                .flatMap(service::lookup)
+                .flatMap(lookup -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(lookup))
+                .onErrorResume(this::error);
+    }
+
+    /**
+     * A keyset page as JSON, or with {@code Accept: application/x-ndjson} every match streamed as the client reads.
+     */
+    public Mono<ServerResponse> list(ServerRequest request) {
+        var filter = new BookFilter(request.queryParam("author").orElse(null),
+                request.queryParam("titlePrefix").orElse(null), request.queryParam("isbn").orElse(null));
+        var cursor = request.queryParam("cursor").orElse(null);
+
+        if (request.headers().accept().contains(MediaType.APPLICATION_NDJSON)) {
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON)
+                    .body(BodyInserters.fromDataBuffers(encode(service.streamAll(filter, cursor), CatalogueFormat.NDJSON)));
+        }
+        return queryParam(request, "size", "20", Integer::valueOf)
+                .flatMap(size -> service.findAll(filter, cursor, size))
+                .flatMap(page -> {
+                    var etag = ETags.of(page.getItems(), page.getNext());
+                    var ifNoneMatch = request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH);
+                    if (ifNoneMatch != null && ETags.matches(ifNoneMatch, etag)) return notModified(etag);
+                    return ServerResponse.ok().eTag(etag).cacheControl(cacheProperties.toCacheControl())
+                            .contentType(MediaType.APPLICATION_JSON).bodyValue(page);
+                })
+                .onErrorResume(this::error);
+    }
+
+    public Mono<ServerResponse> export(ServerRequest request) {
+        return queryParam(request, "format", "NDJSON", CatalogueFormat::valueOf)
+                .flatMap(format -> ServerResponse.ok().contentType(MediaType.parseMediaType(format.getMediaType()))
+                        .body(BodyInserters.fromDataBuffers(encode(service.export(), format))))
+                .onErrorResume(this::error);
+    }
+
+    public Mono<ServerResponse> find(ServerRequest request) {
+        var ifNoneMatch = request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH);
+        return id(request)
+                .flatMap(id -> {
+                    if (ifNoneMatch == null) return ok(service.findById(id));
+                    return service.findVersion(id).flatMap(version -> {
+                        var etag = ETags.of(version);
+                        return ETags.matches(ifNoneMatch, etag) ? notModified(etag) : ok(service.findById(id));
+                    });
+                })
+                .onErrorResume(this::error);
+    }
+
+    public Mono<ServerResponse> findByIsbn(ServerRequest request) {
+        var ifNoneMatch = request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH);
+        return service.findByIsbn(request.pathVariable("isbn"))
+                .flatMap(book -> {
+                    var etag = ETags.of(book.getId(), book.getVersion());
+                    if (ifNoneMatch != null && ETags.matches(ifNoneMatch, etag)) return notModified(etag);
+                    return ServerResponse.ok().eTag(etag).cacheControl(cacheProperties.toCacheControl())
+                            .contentType(MediaType.APPLICATION_JSON).bodyValue(book.toResponse());
+                })
+                .onErrorResume(this::error);
+    }
+
+    public Mono<ServerResponse> update(ServerRequest request) {
+        return id(request)
+                .flatMap(id -> expectedVersion(request, id)
+                        .flatMap(expected -> body(request, UpdateBookCommand.class)
+                                .flatMap(command -> service.update(id, command, expected.orElse(null)))))
+                .flatMap(this::written)
+                .onErrorResume(this::error);
+    }
+
+    public Mono<ServerResponse> patch(ServerRequest request) {
+        return id(request)
+                .flatMap(id -> expectedVersion(request, id)
+                        .flatMap(expected -> body(request, PatchBookCommand.class)
+                                .flatMap(command -> service.patch(id, command, expected.orElse(null)))))
+                .flatMap(this::written)
+                .onErrorResume(this::error);
+    }
+
+    public Mono<ServerResponse> delete(ServerRequest request) {
+        return id(request)
+                .flatMap(service::delete)
+                .then(ServerResponse.noContent().build())
+                .onErrorResume(this::error);
+    }
+
+    private Mono<ServerResponse> ok(Mono<BookRow> book) {
+        return book.flatMap(found -> ServerResponse.ok().eTag(ETags.of(found.getVersion()))
+                .cacheControl(cacheProperties.toCacheControl())
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(found.toResponse()));
+    }
+
+    private Mono<ServerResponse> written(BookRow book) {
+        return ServerResponse.ok().eTag(ETags.of(book.getVersion()))
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(book.toResponse());
+    }
+
+    private Mono<ServerResponse> notModified(String etag) {
+        return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheProperties.toCacheControl())
+                .build();
+    }
+
+    private Mono<ServerResponse> createAll(List<CreateBookCommand> commands) {
+        return service.saveAll(commands).flatMap(response -> {
+            var status = response.hasCreated() || commands.isEmpty() ? HttpStatus.CREATED : HttpStatus.UNPROCESSABLE_ENTITY;
+            return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(response);
+        });
+    }
+
+    private Mono<Long> id(ServerRequest request) {
+        var id = request.pathVariable("id");
+        try {
+            return Mono.just(Long.valueOf(id));
+        } catch (NumberFormatException e) {
+            return Mono.error(new ServerWebInputException("Invalid book id: " + id));
+        }
+    }
+
+    /**
+     * Parses a query parameter, answering 400 only for a value the client got wrong; any other failure stays a 500.
+     */
+    private <T> Mono<T> queryParam(ServerRequest request, String name, String defaultValue, Function<String, T> parser) {
+        var value = request.queryParam(name).orElse(defaultValue);
+        try {
+            return Mono.just(parser.apply(value));
+        } catch (IllegalArgumentException e) {
+            return Mono.error(new ServerWebInputException("Invalid " + name + ": " + value));
+        }
+    }
+
+    /**
+     * @return the version from If-Match, or nothing when the header is absent or {@code *}
+     */
+    private Mono<Optional<Long>> expectedVersion(ServerRequest request, Long id) {
+        var ifMatch = request.headers().firstHeader(HttpHeaders.IF_MATCH);
+        return Mono.fromCallable(() -> Optional.ofNullable(ifMatch == null ? null : ETags.version(id, ifMatch)));
+    }
+
+    private <T> Mono<T> body(ServerRequest request, Class<T> type) {
+        return request.bodyToMono(type)
+                .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Request body is missing")))
+                .flatMap(command -> {
+                    var errors = new BeanPropertyBindingResult(command, uncapitalize(type.getSimpleName()));
+                    validator.validate(command, errors);
+                    return errors.hasErrors() ? Mono.error(new BindException(errors)) : Mono.just(command);
+                });
+    }
+
+    private Flux<DataBuffer> encode(Flux<BookRow> books, CatalogueFormat format) {
+        var chunks = books.buffer(STREAM_CHUNK).<DataBuffer>map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(
+                format == CatalogueFormat.CSV ? csv(chunk) : ndjson(chunk)));
+        if (format != CatalogueFormat.CSV) return chunks;
+        return Flux.concat(Mono.fromSupplier(() -> DefaultDataBufferFactory.sharedInstance.wrap(CSV_HEADER)), chunks);
+    }
+
+    private byte[] ndjson(List<BookRow> books) {
+        var out = new ByteArrayOutputStream(books.size() * 128);
+        try {
+            for (var book : books) {
+                bookWriter.writeValue(out, book.toResponse());
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] csv(List<BookRow> books) {
+        var lines = new StringBuilder(books.size() * 96);
+        for (var book : books) {
+            lines.append(book.getId()).append(',')
+                    .append(CsvFields.quote(book.getTitle())).append(',')
+                    .append(CsvFields.quote(book.getAuthor())).append(',')
+                    .append(CsvFields.quote(book.getIsbn())).append('\n');
+        }
+        return lines.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Same statuses and bodies as {@link com.workshopspring.libraryapi.exceptions.GlobalExceptionHandler}.
+     */
+    private Mono<ServerResponse> error(Throwable e) {
+        if (e instanceof BindException) {
+            return error(HttpStatus.BAD_REQUEST, new StandardError<>("", ((BindException) e).getAllErrors()));
+        }
+        if (e instanceof ServerWebInputException) {
+            return error(HttpStatus.BAD_REQUEST, new StandardError<>(((ServerWebInputException) e).getReason()));
+        }
+        if (e instanceof ResourceNotFoundException) {
+            return error(HttpStatus.NOT_FOUND, new StandardError<>(e.getMessage()));
+        }
+        if (e instanceof PreconditionFailedException) {
+            return error(HttpStatus.PRECONDITION_FAILED, new StandardError<>(e.getMessage()));
+        }
+        if (e instanceof OptimisticLockingFailureException) {
+            return error(HttpStatus.CONFLICT, new StandardError<>("Resource was modified concurrently"));
+        }
+        if (e instanceof DomainException) {
+            var errors = ((DomainException) e).getErrors();
+            return error(HttpStatus.UNPROCESSABLE_ENTITY, new StandardError<>(e.getMessage(), new ArrayList<>(errors.entrySet())));
+        }
+        return Mono.error(e);
+    }
+
+    private Mono<ServerResponse> error(HttpStatus status, StandardError<?> body) {
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(body);
+    }
+
+    private static String uncapitalize(String name) {
+        return name.substring(0, 1).toLowerCase(Locale.ROOT) + name.substring(1);
+    }
+}
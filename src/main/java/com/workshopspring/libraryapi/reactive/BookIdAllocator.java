@@ -0,0 +1,61 @@
+package com.workshopspring.libraryapi.reactive;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out book ids from book_seq the way Hibernate's pooled optimizer does for the JPA stack: each sequence
+ * value reserves the block ending at it, so both stacks can insert into the same table without collisions.
+ */
+class BookIdAllocator {
+
+    /**
+     * Must match the allocationSize of the JPA sequence generator.
+     */
+    static final int BLOCK_SIZE = 50;
+
+    private final DatabaseClient client;
+    private final AtomicReference<Block> block = new AtomicReference<>(new Block(1, 0));
+
+    BookIdAllocator(DatabaseClient client) {
+        this.client = client;
+    }
+
+    Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            var id = block.get().next();
+            if (id > 0) return Mono.just(id);
+            return client.sql("select next value for book_seq")
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .map(hi -> {
+                        var reserved = new Block(Math.max(1, hi - BLOCK_SIZE + 1), hi);
+                        var first = reserved.next();
+                        block.set(reserved);
+                        return first;
+                    });
+        });
+    }
+
+    private static final class Block {
+
+        private final AtomicLong next;
+        private final long last;
+
+        private Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+
+        /**
+         * @return the next id of the block, or 0 once it is used up
+         */
+        private long next() {
+            var id = next.getAndIncrement();
+            return id <= last ? id : 0;
+        }
+    }
+}
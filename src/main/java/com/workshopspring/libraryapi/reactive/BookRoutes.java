@@ -0,0 +1,29 @@
+package com.workshopspring.libraryapi.reactive;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+@Configuration
+@Profile("reactive")
+public class BookRoutes {
+
+    @Bean
+    public RouterFunction<ServerResponse> bookRouter(BookHandler handler) {
+        return RouterFunctions.route()
+                .POST("/api/books/batch", handler::createAll)
+                .POST("/api/books/lookup", handler::lookup)
+                .POST("/api/books", handler::create)
+                .GET("/api/books/export", handler::export)
+                .GET("/api/books/isbn/{isbn}", handler::findByIsbn)
+                .GET("/api/books/{id}", handler::find)
+                .GET("/api/books", handler::list)
+                .PUT("/api/books/{id}", handler::update)
+                .PATCH("/api/books/{id}", handler::patch)
+                .DELETE("/api/books/{id}", handler::delete)
+                .build();
+    }
+}
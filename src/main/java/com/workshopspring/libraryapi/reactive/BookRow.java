@@ -0,0 +1,39 @@
+package com.workshopspring.libraryapi.reactive;
+
+import com.workshopspring.libraryapi.responses.BookResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * R2DBC mapping of the book table owned by the JPA {@link com.workshopspring.libraryapi.entity.Book} entity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("book")
+public class BookRow {
+
+    @Id
+    private Long id;
+
+    private String title;
+
+    private String author;
+
+    private String isbn;
+
+    @Column("isbn_key")
+    private long isbnKey;
+
+    @Version
+    private Long version;
+
+    public BookResponse toResponse() {
+        return new BookResponse(id, title, author, isbn, version);
+    }
+}
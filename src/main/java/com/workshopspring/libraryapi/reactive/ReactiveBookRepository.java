@@ -0,0 +1,26 @@
+package com.workshopspring.libraryapi.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface ReactiveBookRepository extends R2dbcRepository<BookRow, Long> {
+
+    Mono<Boolean> existsByIsbnKey(long isbnKey);
+
+    Mono<BookRow> findByIsbnKey(long isbnKey);
+
+    Flux<BookRow> findAllByIsbnKeyIn(Collection<Long> isbnKeys);
+
+    @Query("select version from book where id = :id")
+    Mono<Long> findVersionById(Long id);
+
+    @Query("select isbn_key from book where isbn_key in (:isbnKeys)")
+    Flux<Long> findExistingIsbnKeys(Collection<Long> isbnKeys);
+
+    @Query("select * from book order by id")
+    Flux<BookRow> streamAll();
+}
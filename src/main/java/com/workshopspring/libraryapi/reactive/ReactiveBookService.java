@@ -0,0 +1,51 @@
+package com.workshopspring.libraryapi.reactive;
+
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.commands.LookupBooksCommand;
+import com.workshopspring.libraryapi.commands.PatchBookCommand;
+import com.workshopspring.libraryapi.commands.UpdateBookCommand;
+import com.workshopspring.libraryapi.queries.BookFilter;
+import com.workshopspring.libraryapi.responses.BatchCreateResponse;
+import com.workshopspring.libraryapi.responses.BookLookupResponse;
+import com.workshopspring.libraryapi.responses.BookPageResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link com.workshopspring.libraryapi.services.BookService}, with the same rules
+ * and errors.
+ */
+public interface ReactiveBookService {
+
+    Mono<BookRow> save(CreateBookCommand command);
+
+    Mono<BatchCreateResponse> saveAll(List<CreateBookCommand> commands);
+
+    Mono<BookRow> findById(Long id);
+
+    Mono<Long> findVersion(Long id);
+
+    Mono<BookRow> findByIsbn(String isbn);
+
+    Mono<BookLookupResponse> lookup(LookupBooksCommand command);
+
+    Mono<BookPageResponse> findAll(BookFilter filter, String cursor, int size);
+
+    /**
+     * Every book matching the filter after the cursor, emitted as the subscriber requests them.
+     */
+    Flux<BookRow> streamAll(BookFilter filter, String cursor);
+
+    /**
+     * The whole catalogue ordered by id, emitted as the subscriber requests them.
+     */
+    Flux<BookRow> export();
+
+    Mono<BookRow> update(Long id, UpdateBookCommand command, Long expectedVersion);
+
+    Mono<BookRow> patch(Long id, PatchBookCommand command, Long expectedVersion);
+
+    Mono<Void> delete(Long id);
+}
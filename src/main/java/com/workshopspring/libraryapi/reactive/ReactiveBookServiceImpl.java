@@ -0,0 +1,262 @@
+package com.workshopspring.libraryapi.reactive;
+
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.commands.LookupBooksCommand;
+import com.workshopspring.libraryapi.commands.PatchBookCommand;
+import com.workshopspring.libraryapi.commands.UpdateBookCommand;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.exceptions.BatchItemError;
+import com.workshopspring.libraryapi.exceptions.DuplicatedISBN;
+import com.workshopspring.libraryapi.exceptions.InvalidISBN;
+import com.workshopspring.libraryapi.exceptions.PreconditionFailedException;
+import com.workshopspring.libraryapi.exceptions.ResourceNotFoundException;
+import com.workshopspring.libraryapi.isbn.Isbn;
+import com.workshopspring.libraryapi.queries.BookFilter;
+import com.workshopspring.libraryapi.queries.PageCursor;
+import com.workshopspring.libraryapi.responses.BatchCreateResponse;
+import com.workshopspring.libraryapi.responses.BookLookupResponse;
+import com.workshopspring.libraryapi.responses.BookPageResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Service
+@Profile("reactive")
+public class ReactiveBookServiceImpl implements ReactiveBookService {
+
+    private static final int ISBN_LOOKUP_CHUNK = 1000;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private ReactiveBookRepository repository;
+    private R2dbcEntityTemplate template;
+    private TransactionalOperator transactionalOperator;
+    private Validator validator;
+    private BookIdAllocator idAllocator;
+
+    @Autowired
+    public ReactiveBookServiceImpl(ReactiveBookRepository repository, R2dbcEntityTemplate template,
+                                   TransactionalOperator transactionalOperator, Validator validator) {
+        this.repository = repository;
+        this.template = template;
+        this.transactionalOperator = transactionalOperator;
+        this.validator = validator;
+        this.idAllocator = new BookIdAllocator(template.getDatabaseClient());
+    }
+
+    @Override
+    public Mono<BookRow> save(CreateBookCommand command) {
+        var isbnKey = Isbn.parse(command.getIsbn());
+        if (isbnKey == Isbn.INVALID) return Mono.error(new InvalidISBN("Invalid ISBN", "Book"));
+        return repository.existsByIsbnKey(isbnKey)
+                .flatMap(exists -> exists
+                        ? Mono.error(new DuplicatedISBN("Duplicated ISBN", "Book"))
+                        : insert(command, isbnKey));
+    }
+
+    @Override
+    public Mono<BatchCreateResponse> saveAll(List<CreateBookCommand> commands) {
+        var errors = new ArrayList<BatchItemError>();
+        var accepted = new LinkedHashMap<Long, Integer>();
+
+        for (int i = 0; i < commands.size(); i++) {
+            var command = commands.get(i);
+            if (command == null) {
+                errors.add(new BatchItemError(i, null, "Invalid book", List.of("must not be null")));
+                continue;
+            }
+            var violations = validator.validate(command);
+            if (!violations.isEmpty()) {
+                errors.add(new BatchItemError(i, command.getIsbn(), "Invalid book", messagesOf(violations)));
+            } else if (accepted.putIfAbsent(Isbn.parse(command.getIsbn()), i) != null) {
+                errors.add(duplicatedIsbnError(i, command.getIsbn()));
+            }
+        }
+
+        return findExistingIsbnKeys(accepted.keySet())
+                .flatMap(existing -> {
+                    var inserts = new ArrayList<Mono<BookRow>>(accepted.size());
+                    accepted.forEach((isbnKey, index) -> {
+                        var command = commands.get(index);
+                        if (existing.contains(isbnKey)) errors.add(duplicatedIsbnError(index, command.getIsbn()));
+                        else inserts.add(insert(command, isbnKey));
+                    });
+                    return Flux.concat(inserts).map(BookRow::toResponse).collectList().as(transactionalOperator::transactional);
+                })
+                .map(created -> {
+                    errors.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+                    return new BatchCreateResponse(created, errors);
+                });
+    }
+
+    @Override
+    public Mono<BookRow> findById(Long id) {
+        return repository.findById(id).switchIfEmpty(Mono.error(() -> new ResourceNotFoundException(id)));
+    }
+
+    @Override
+    public Mono<Long> findVersion(Long id) {
+        return repository.findVersionById(id).switchIfEmpty(Mono.error(() -> new ResourceNotFoundException(id)));
+    }
+
+    @Override
+    public Mono<BookRow> findByIsbn(String isbn) {
+        var isbnKey = Isbn.parse(isbn);
+        if (isbnKey == Isbn.INVALID) return Mono.error(new ResourceNotFoundException(isbn));
+        return repository.findByIsbnKey(isbnKey).switchIfEmpty(Mono.error(() -> new ResourceNotFoundException(isbn)));
+    }
+
+    @Override
+    public Mono<BookLookupResponse> lookup(LookupBooksCommand command) {
+        var byId = command.getIds() == null || command.getIds().isEmpty()
+                ? Flux.<BookRow>empty() : repository.findAllById(new HashSet<>(command.getIds()));
+        var isbnKeys = new HashSet<Long>();
+        if (command.getIsbns() != null) {
+            for (var isbn : command.getIsbns()) {
+                var isbnKey = Isbn.parse(isbn);
+                if (isbnKey != Isbn.INVALID) isbnKeys.add(isbnKey);
+            }
+        }
+        var byIsbn = isbnKeys.isEmpty() ? Flux.<BookRow>empty() : repository.findAllByIsbnKeyIn(isbnKeys);
+        return Flux.concat(byId, byIsbn).map(BookRow::toResponse).collectList()
+                .map(found -> BookLookupResponse.of(command, found));
+    }
+
+    @Override
+    public Mono<BookPageResponse> findAll(BookFilter filter, String cursor, int size) {
+        var limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return Mono.fromCallable(() -> PageCursor.decode(cursor))
+                .flatMap(afterId -> select(filter, afterId, limit + 1).map(BookRow::toResponse).collectList())
+                .map(books -> {
+                    if (books.size() <= limit) return new BookPageResponse(Collections.unmodifiableList(books), null);
+
+                    var page = books.subList(0, limit);
+                    return new BookPageResponse(Collections.unmodifiableList(page),
+                            PageCursor.encode(page.get(limit - 1).getId()));
+                });
+    }
+
+    @Override
+    public Flux<BookRow> streamAll(BookFilter filter, String cursor) {
+        return Mono.fromCallable(() -> PageCursor.decode(cursor)).flatMapMany(afterId -> select(filter, afterId, 0));
+    }
+
+    @Override
+    public Flux<BookRow> export() {
+        return repository.streamAll();
+    }
+
+    @Override
+    public Mono<BookRow> update(Long id, UpdateBookCommand command, Long expectedVersion) {
+        return write(id, expectedVersion, book -> {
+            book.setTitle(command.getTitle());
+            book.setAuthor(command.getAuthor());
+        });
+    }
+
+    @Override
+    public Mono<BookRow> patch(Long id, PatchBookCommand command, Long expectedVersion) {
+        return write(id, expectedVersion, book -> {
+            if (command.getTitle() != null) book.setTitle(command.getTitle());
+            if (command.getAuthor() != null) book.setAuthor(command.getAuthor());
+        });
+    }
+
+    @Override
+    public Mono<Void> delete(Long id) {
+        return template.delete(Query.query(Criteria.where("id").is(id)), BookRow.class)
+                .flatMap(deleted -> deleted == 0 ? Mono.error(new ResourceNotFoundException(id)) : Mono.empty());
+    }
+
+    private Mono<BookRow> insert(CreateBookCommand command, long isbnKey) {
+        return idAllocator.nextId()
+                .flatMap(id -> template.insert(new BookRow(id, command.getTitle(), command.getAuthor(),
+                        command.getIsbn(), isbnKey, null)))
+                .onErrorMap(DataIntegrityViolationException.class, this::translateIsbnViolation);
+    }
+
+    private Mono<BookRow> write(Long id, Long expectedVersion, Consumer<BookRow> change) {
+        return findById(id)
+                .flatMap(book -> {
+                    if (expectedVersion != null && !expectedVersion.equals(book.getVersion())) {
+                        return Mono.error(new PreconditionFailedException(id));
+                    }
+                    change.accept(book);
+                    return repository.save(book);
+                })
+                .onErrorMap(OptimisticLockingFailureException.class,
+                        e -> expectedVersion != null ? new PreconditionFailedException(id) : e)
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Keyset page like the JPA search repository; a limit of 0 streams every match.
+     */
+    private Flux<BookRow> select(BookFilter filter, long afterId, int limit) {
+        var criteria = Criteria.where("id").greaterThan(afterId);
+        if (hasText(filter.getAuthor())) criteria = criteria.and("author").is(filter.getAuthor());
+        if (hasText(filter.getIsbn())) criteria = criteria.and("isbn_key").is(Isbn.parse(filter.getIsbn()));
+        if (hasText(filter.getTitlePrefix())) {
+            criteria = criteria.and("title").like(escapeLike(filter.getTitlePrefix()) + "%");
+        }
+        var query = Query.query(criteria).sort(Sort.by("id"));
+        return template.select(limit > 0 ? query.limit(limit) : query, BookRow.class);
+    }
+
+    private Mono<Set<Long>> findExistingIsbnKeys(Set<Long> isbnKeys) {
+        if (isbnKeys.isEmpty()) return Mono.just(Set.of());
+        return Flux.fromIterable(isbnKeys)
+                .buffer(ISBN_LOOKUP_CHUNK)
+                .concatMap(repository::findExistingIsbnKeys)
+                .collect(HashSet::new, Set::add);
+    }
+
+    private Throwable translateIsbnViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            var message = cause.getMessage();
+            if (message != null && message.toLowerCase(Locale.ROOT).contains(Book.ISBN_UNIQUE_INDEX)) {
+                return new DuplicatedISBN("Duplicated ISBN", "Book");
+            }
+        }
+        return e;
+    }
+
+    private BatchItemError duplicatedIsbnError(int index, String isbn) {
+        return new BatchItemError(index, isbn, "Duplicated ISBN", List.of("ISBN already registered!"));
+    }
+
+    private List<String> messagesOf(Set<ConstraintViolation<CreateBookCommand>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
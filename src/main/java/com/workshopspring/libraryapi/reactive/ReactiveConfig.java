@@ -0,0 +1,42 @@
+package com.workshopspring.libraryapi.reactive;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * The reactive stack runs next to JPA, which still owns the schema, imports and exports. Boot backs off
+ * its JDBC DataSource as soon as an R2DBC ConnectionFactory exists, so the Hikari pool is declared here;
+ * with an R2DBC transaction manager in the context as well, the JPA one is primary so that
+ * {@code @Transactional} keeps resolving to it. Reactive code goes through the TransactionalOperator.
+ */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                    ObjectProvider<TransactionManagerCustomizers> customizers) {
+        var transactionManager = new JpaTransactionManager(entityManagerFactory);
+        customizers.ifAvailable(it -> it.customize(transactionManager));
+        return transactionManager;
+    }
+}
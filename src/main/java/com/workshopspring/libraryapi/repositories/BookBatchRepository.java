@@ -0,0 +1,14 @@
+package com.workshopspring.libraryapi.repositories;
+
+import com.workshopspring.libraryapi.entity.Book;
+
+import java.util.List;
+
+public interface BookBatchRepository {
+
+    /**
+     * Persists the books in JDBC batches of {@code hibernate.jdbc.batch_size}, flushing and clearing
+     * the persistence context after each batch so large imports do not grow the session.
+     */
+    List<Book> insertAll(List<Book> books);
+}
@@ -0,0 +1,33 @@
+package com.workshopspring.libraryapi.repositories;
+
+import com.workshopspring.libraryapi.entity.Book;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+public class BookBatchRepositoryImpl implements BookBatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Override
+    @Transactional
+    public List<Book> insertAll(List<Book> books) {
+        for (int i = 0; i < books.size(); i++) {
+            entityManager.persist(books.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return books;
+    }
+}
@@ -0,0 +1,21 @@
+package com.workshopspring.libraryapi.repositories;
+
+import com.workshopspring.libraryapi.entity.BookChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookChangeRepository extends JpaRepository<BookChange, Long> {
+
+    List<BookChange> findByPositionIsNullOrderById(Pageable page);
+
+    List<BookChange> findByPositionGreaterThanOrderByPosition(long position, Pageable page);
+
+    @Query("select max(c.position) from BookChange c")
+    Optional<Long> findMaxPosition();
+}
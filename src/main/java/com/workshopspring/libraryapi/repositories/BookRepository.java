@@ -1,10 +1,56 @@
 package com.workshopspring.libraryapi.repositories;
 
 import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.responses.BookResponse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
-    boolean existsByIsbn(String isbn);
+public interface BookRepository extends JpaRepository<Book, Long>, BookBatchRepository, BookSearchRepository {
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    boolean existsByIsbnKey(long isbnKey);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    Optional<Book> findByIsbnKey(long isbnKey);
+
+    List<Book> findAllByIsbnKeyIn(Collection<Long> isbnKeys);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    @Query("select b.version from Book b where b.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select b.isbnKey from Book b where b.isbnKey in :isbnKeys")
+    Set<Long> findExistingIsbnKeys(@Param("isbnKeys") Collection<Long> isbnKeys);
+
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("select b from Book b order by b.id")
+    Stream<Book> streamAll();
+
+    @Query("select min(b.id) from Book b")
+    Optional<Long> findMinId();
+
+    @Query("select max(b.id) from Book b")
+    Optional<Long> findMaxId();
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.workshopspring.libraryapi.responses.BookResponse(b.id, b.title, b.author, b.isbn, b.version) "
+            + "from Book b where b.id between :from and :to")
+    Stream<BookResponse> streamResponsesByIdRange(@Param("from") long from, @Param("to") long to);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select b.isbnKey from Book b")
+    Stream<Long> streamAllIsbnKeys();
 }
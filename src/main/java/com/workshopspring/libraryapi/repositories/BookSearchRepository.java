@@ -0,0 +1,15 @@
+package com.workshopspring.libraryapi.repositories;
+
+import com.workshopspring.libraryapi.queries.BookFilter;
+import com.workshopspring.libraryapi.responses.BookResponse;
+
+import java.util.List;
+
+public interface BookSearchRepository {
+
+    /**
+     * Seeks up to {@code limit} books with {@code id > afterId} matching every non-empty filter field,
+     * ordered by id. Rows are projected straight into responses, so no entities enter the persistence context.
+     */
+    List<BookResponse> findPage(BookFilter filter, long afterId, int limit);
+}
@@ -0,0 +1,46 @@
+package com.workshopspring.libraryapi.repositories;
+
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.isbn.Isbn;
+import com.workshopspring.libraryapi.queries.BookFilter;
+import com.workshopspring.libraryapi.responses.BookResponse;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BookSearchRepositoryImpl implements BookSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookResponse> findPage(BookFilter filter, long afterId, int limit) {
+        var builder = entityManager.getCriteriaBuilder();
+        var query = builder.createQuery(BookResponse.class);
+        var book = query.from(Book.class);
+
+        var predicates = new ArrayList<Predicate>();
+        predicates.add(builder.greaterThan(book.get("id"), afterId));
+        if (hasText(filter.getAuthor())) predicates.add(builder.equal(book.get("author"), filter.getAuthor()));
+        if (hasText(filter.getIsbn())) predicates.add(builder.equal(book.get("isbnKey"), Isbn.parse(filter.getIsbn())));
+        if (hasText(filter.getTitlePrefix())) {
+            predicates.add(builder.like(book.get("title"), escapeLike(filter.getTitlePrefix()) + "%", '\\'));
+        }
+
+        query.select(builder.construct(BookResponse.class, book.get("id"), book.get("title"), book.get("author"),
+                        book.get("isbn"), book.get("version")))
+                .where(predicates.toArray(new Predicate[0])).orderBy(builder.asc(book.get("id")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    private boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,9 @@
+package com.workshopspring.libraryapi.repositories;
+
+import com.workshopspring.libraryapi.entity.ImportCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportCheckpointRepository extends JpaRepository<ImportCheckpoint, String> {
+}
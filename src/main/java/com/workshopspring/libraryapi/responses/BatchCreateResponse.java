@@ -0,0 +1,21 @@
+package com.workshopspring.libraryapi.responses;
+
+import com.workshopspring.libraryapi.exceptions.BatchItemError;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCreateResponse {
+
+    private List<BookResponse> created;
+    private List<BatchItemError> errors;
+
+    public boolean hasCreated() {
+        return !created.isEmpty();
+    }
+}
@@ -0,0 +1,25 @@
+package com.workshopspring.libraryapi.responses;
+
+import com.workshopspring.libraryapi.entity.BookChange;
+import com.workshopspring.libraryapi.events.BookChangedEvent;
+import lombok.Value;
+
+import java.time.Instant;
+
+@Value
+public class BookChangeResponse {
+
+    long position;
+    BookChangedEvent.Type type;
+    Long bookId;
+    BookResponse book;
+    Instant occurredAt;
+
+    public static BookChangeResponse of(BookChange change) {
+        var book = change.getType() == BookChangedEvent.Type.DELETED ? null
+                : new BookResponse(change.getBookId(), change.getTitle(), change.getAuthor(), change.getIsbn(),
+                        change.getVersion());
+        return new BookChangeResponse(change.getPosition(), change.getType(), change.getBookId(), book,
+                change.getOccurredAt());
+    }
+}
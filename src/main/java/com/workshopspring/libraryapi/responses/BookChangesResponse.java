@@ -0,0 +1,15 @@
+package com.workshopspring.libraryapi.responses;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * {@code next} is always set: it is the cursor to poll with next time, whether or not this page had changes.
+ */
+@Value
+public class BookChangesResponse {
+
+    List<BookChangeResponse> items;
+    String next;
+}
@@ -0,0 +1,60 @@
+package com.workshopspring.libraryapi.responses;
+
+import com.workshopspring.libraryapi.commands.LookupBooksCommand;
+import com.workshopspring.libraryapi.isbn.Isbn;
+import com.workshopspring.libraryapi.queries.BookField;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One result per requested key, in request order: ids first, then ISBNs. Keys without a book carry no book
+ * rather than failing the whole lookup.
+ */
+@Value
+public class BookLookupResponse {
+
+    Set<BookField> fields;
+    List<Result> results;
+
+    @Value
+    public static class Result {
+
+        String key;
+        BookResponse book;
+
+        public boolean isFound() {
+            return book != null;
+        }
+    }
+
+    public static BookLookupResponse of(LookupBooksCommand command, Collection<BookResponse> found) {
+        var byId = new HashMap<Long, BookResponse>(found.size() * 2);
+        var byIsbnKey = new HashMap<Long, BookResponse>(found.size() * 2);
+        for (var book : found) {
+            byId.put(book.getId(), book);
+            var isbnKey = Isbn.parse(book.getIsbn());
+            if (isbnKey != Isbn.INVALID) byIsbnKey.put(isbnKey, book);
+        }
+
+        var results = new ArrayList<Result>();
+        if (command.getIds() != null) {
+            for (var id : command.getIds()) results.add(new Result(String.valueOf(id), byId.get(id)));
+        }
+        if (command.getIsbns() != null) {
+            for (var isbn : command.getIsbns()) {
+                var isbnKey = Isbn.parse(isbn);
+                results.add(new Result(isbn, isbnKey == Isbn.INVALID ? null : byIsbnKey.get(isbnKey)));
+            }
+        }
+        var fields = command.getFields() == null || command.getFields().isEmpty()
+                ? EnumSet.allOf(BookField.class) : EnumSet.copyOf(command.getFields());
+        return new BookLookupResponse(Collections.unmodifiableSet(fields), Collections.unmodifiableList(results));
+    }
+}
@@ -0,0 +1,12 @@
+package com.workshopspring.libraryapi.responses;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class BookPageResponse {
+
+    List<BookResponse> items;
+    String next;
+}
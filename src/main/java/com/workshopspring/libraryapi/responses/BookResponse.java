@@ -0,0 +1,13 @@
+package com.workshopspring.libraryapi.responses;
+
+import lombok.Value;
+
+@Value
+public class BookResponse {
+
+    Long id;
+    String title;
+    String author;
+    String isbn;
+    Long version;
+}
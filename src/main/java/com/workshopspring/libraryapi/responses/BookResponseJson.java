@@ -0,0 +1,142 @@
+package com.workshopspring.libraryapi.responses;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.workshopspring.libraryapi.queries.BookField;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Serialisers for the book read endpoints. They write fields straight to the generator with pre-encoded
+ * names instead of going through bean introspection and property writers.
+ */
+@JsonComponent
+public class BookResponseJson {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString AUTHOR = new SerializedString("author");
+    private static final SerializedString ISBN = new SerializedString("isbn");
+    private static final SerializedString VERSION = new SerializedString("version");
+    private static final SerializedString ITEMS = new SerializedString("items");
+    private static final SerializedString NEXT = new SerializedString("next");
+    private static final SerializedString RESULTS = new SerializedString("results");
+    private static final SerializedString KEY = new SerializedString("key");
+    private static final SerializedString FOUND = new SerializedString("found");
+    private static final SerializedString BOOK = new SerializedString("book");
+
+    public static class BookSerializer extends StdSerializer<BookResponse> {
+
+        public BookSerializer() {
+            super(BookResponse.class);
+        }
+
+        @Override
+        public void serialize(BookResponse book, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(book);
+            writeFields(book, gen);
+            gen.writeEndObject();
+        }
+    }
+
+    public static class PageSerializer extends StdSerializer<BookPageResponse> {
+
+        public PageSerializer() {
+            super(BookPageResponse.class);
+        }
+
+        @Override
+        public void serialize(BookPageResponse page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(page);
+            gen.writeFieldName(ITEMS);
+            gen.writeStartArray(page.getItems(), page.getItems().size());
+            for (var book : page.getItems()) {
+                gen.writeStartObject(book);
+                writeFields(book, gen);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeFieldName(NEXT);
+            gen.writeString(page.getNext());
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes {@code book} only for keys that resolved, with just the requested fields.
+     */
+    public static class LookupSerializer extends StdSerializer<BookLookupResponse> {
+
+        public LookupSerializer() {
+            super(BookLookupResponse.class);
+        }
+
+        @Override
+        public void serialize(BookLookupResponse lookup, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(lookup);
+            gen.writeFieldName(RESULTS);
+            gen.writeStartArray(lookup.getResults(), lookup.getResults().size());
+            for (var result : lookup.getResults()) {
+                gen.writeStartObject(result);
+                gen.writeFieldName(KEY);
+                gen.writeString(result.getKey());
+                gen.writeFieldName(FOUND);
+                gen.writeBoolean(result.isFound());
+                if (result.isFound()) {
+                    gen.writeFieldName(BOOK);
+                    gen.writeStartObject(result.getBook());
+                    writeFields(result.getBook(), lookup.getFields(), gen);
+                    gen.writeEndObject();
+                }
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+    private static void writeFields(BookResponse book, Set<BookField> fields, JsonGenerator gen) throws IOException {
+        if (fields.contains(BookField.ID)) {
+            gen.writeFieldName(ID);
+            writeNumber(book.getId(), gen);
+        }
+        if (fields.contains(BookField.TITLE)) {
+            gen.writeFieldName(TITLE);
+            gen.writeString(book.getTitle());
+        }
+        if (fields.contains(BookField.AUTHOR)) {
+            gen.writeFieldName(AUTHOR);
+            gen.writeString(book.getAuthor());
+        }
+        if (fields.contains(BookField.ISBN)) {
+            gen.writeFieldName(ISBN);
+            gen.writeString(book.getIsbn());
+        }
+        if (fields.contains(BookField.VERSION)) {
+            gen.writeFieldName(VERSION);
+            writeNumber(book.getVersion(), gen);
+        }
+    }
+
+    private static void writeFields(BookResponse book, JsonGenerator gen) throws IOException {
+        gen.writeFieldName(ID);
+        writeNumber(book.getId(), gen);
+        gen.writeFieldName(TITLE);
+        gen.writeString(book.getTitle());
+        gen.writeFieldName(AUTHOR);
+        gen.writeString(book.getAuthor());
+        gen.writeFieldName(ISBN);
+        gen.writeString(book.getIsbn());
+        gen.writeFieldName(VERSION);
+        writeNumber(book.getVersion(), gen);
+    }
+
+    private static void writeNumber(Long value, JsonGenerator gen) throws IOException {
+        if (value == null) gen.writeNull();
+        else gen.writeNumber(value);
+    }
+}
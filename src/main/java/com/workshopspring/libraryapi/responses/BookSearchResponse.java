@@ -0,0 +1,11 @@
+package com.workshopspring.libraryapi.responses;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class BookSearchResponse {
+
+    List<BookResponse> items;
+}
@@ -0,0 +1,12 @@
+package com.workshopspring.libraryapi.responses;
+
+import com.workshopspring.libraryapi.suggest.Suggestion;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class BookSuggestResponse {
+
+    List<Suggestion> items;
+}
@@ -0,0 +1,129 @@
+package com.workshopspring.libraryapi.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. The decision reads the
+ * transaction's read-only flag, which Spring only sets after the transaction has begun, so this has to sit behind
+ * a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} that defers the connection to the
+ * first statement. A replica that fails to hand out a connection is marked down and reads go to the primary
+ * until a background check gets a valid connection from it again. Threads pinned by {@link ReadYourWrites} always
+ * get the primary.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final Runnable replicaRouted;
+    private final ScheduledExecutorService healthCheck;
+    private volatile boolean replicaUp = true;
+
+    private final Counter primaryRoutes;
+    private final Counter replicaRoutes;
+    private final Counter fallbacks;
+
+    /**
+     * @param replicaRouted runs on the thread that has just been handed a replica connection
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Runnable replicaRouted,
+                                      Duration healthCheckInterval, MeterRegistry registry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.replicaRouted = replicaRouted;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        this.primaryRoutes = routes(registry, "primary");
+        this.replicaRoutes = routes(registry, "replica");
+        this.fallbacks = routes(registry, "fallback");
+        Gauge.builder("library.datasource.replica.up", this, routing -> routing.replicaUp ? 1 : 0).register(registry);
+
+        var interval = healthCheckInterval.toMillis();
+        healthCheck = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("replica-health-"));
+        healthCheck.scheduleWithFixedDelay(this::checkReplica, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isReplicaUp() {
+        return replicaUp;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return replicaUp && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !ReadYourWrites.isPinned() ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == Route.PRIMARY) {
+            primaryRoutes.increment();
+            return primary.getConnection();
+        }
+        try {
+            var connection = replica.getConnection();
+            replicaRoutes.increment();
+            replicaRouted.run();
+            return connection;
+        } catch (SQLException e) {
+            markDown(e);
+            fallbacks.increment();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    /**
+     * Marks the replica up when it hands out a valid connection and down otherwise.
+     */
+    public void checkReplica() {
+        try (var connection = replica.getConnection()) {
+            var valid = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            if (valid && !replicaUp) log.info("Replica is back, routing read-only transactions to it again");
+            if (!valid) markDown(null);
+            else replicaUp = true;
+        } catch (SQLException | RuntimeException e) {
+            markDown(e);
+        }
+    }
+
+    public void close() {
+        healthCheck.shutdownNow();
+    }
+
+    private void markDown(Exception cause) {
+        if (replicaUp) log.warn("Replica unavailable, reading from the primary until it recovers", cause);
+        replicaUp = false;
+    }
+
+    private static Counter routes(MeterRegistry registry, String target) {
+        return Counter.builder("library.datasource.routes").tag("target", target).register(registry);
+    }
+}
@@ -0,0 +1,59 @@
+package com.workshopspring.libraryapi.routing;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Pins the current thread to the primary, so reads that follow a client's own write see it even when the
+ * replica lags behind.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+    private static final ThreadLocal<Runnable> ON_WRITE = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void pin() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static void release() {
+        PINNED.remove();
+    }
+
+    public static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+
+    /**
+     * Sets what {@link #wrote()} does on this thread until {@link #clearOnWrite()}.
+     */
+    public static void onWrite(Runnable action) {
+        ON_WRITE.set(action);
+    }
+
+    public static void clearOnWrite() {
+        ON_WRITE.remove();
+    }
+
+    /**
+     * Called by writers once a change is made; the action runs after the surrounding transaction commits, so a
+     * write that rolls back marks nothing.
+     */
+    public static void wrote() {
+        var action = ON_WRITE.get();
+        if (action == null) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,65 @@
+package com.workshopspring.libraryapi.routing;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A request whose book writes commit leaves a cookie holding the time until which the client reads from the
+ * primary, and requests carrying an unexpired one are pinned there. Reads sent as POST, such as the batch lookup,
+ * and writes that fail set nothing. The cookie only ever sends its own client to the primary, so there is nothing
+ * to gain from forging it.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "LIBRARY_PRIMARY_UNTIL";
+
+    private final Duration stickiness;
+
+    public ReadYourWritesFilter(Duration stickiness) {
+        this.stickiness = stickiness;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (pinnedUntil(request) > System.currentTimeMillis()) ReadYourWrites.pin();
+        var marked = new AtomicBoolean();
+        ReadYourWrites.onWrite(() -> {
+            ReadYourWrites.pin();
+            if (marked.getAndSet(true) || response.isCommitted()) return;
+            var cookie = new Cookie(COOKIE, Long.toString(System.currentTimeMillis() + stickiness.toMillis()));
+            cookie.setMaxAge((int) Math.max(1, stickiness.toSeconds()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        });
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.clearOnWrite();
+            ReadYourWrites.release();
+        }
+    }
+
+    private static long pinnedUntil(HttpServletRequest request) {
+        var cookies = request.getCookies();
+        if (cookies == null) return 0;
+        for (var cookie : cookies) {
+            if (!COOKIE.equals(cookie.getName())) continue;
+            try {
+                return Long.parseLong(cookie.getValue());
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,25 @@
+package com.workshopspring.libraryapi.routing;
+
+/**
+ * Remembers that the current thread read from the replica, so a load can keep what it read out of caches that
+ * would outlive the replica's lag. Loads call {@link #clear()} before reading and check {@link #isServed()} after.
+ */
+public final class ReplicaReads {
+
+    private static final ThreadLocal<Boolean> SERVED = new ThreadLocal<>();
+
+    private ReplicaReads() {
+    }
+
+    public static void mark() {
+        SERVED.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        SERVED.remove();
+    }
+
+    public static boolean isServed() {
+        return SERVED.get() != null;
+    }
+}
@@ -0,0 +1,343 @@
+package com.workshopspring.libraryapi.search;
+
+import com.workshopspring.libraryapi.config.SearchProperties;
+import com.workshopspring.libraryapi.events.BookChangedEvent;
+import com.workshopspring.libraryapi.repositories.BookRepository;
+import com.workshopspring.libraryapi.responses.BookResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded Lucene index over book titles and authors. Writes are applied incrementally from {@link BookChangedEvent}s
+ * once their transaction commits and become searchable on the next query. A rebuild scans the table in id ranges
+ * on several threads into a fresh index generation, which is swapped in once complete; searches keep using the
+ * previous generation meanwhile.
+ */
+@Slf4j
+@Component
+public class BookSearchIndex {
+
+    static final String ID = "id";
+    static final String TITLE = "title";
+    static final String AUTHOR = "author";
+    static final String ISBN = "isbn";
+    static final String VERSION = "version";
+
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    private BookRepository repository;
+    private SearchProperties properties;
+    private TransactionTemplate transaction;
+    private TaskExecutor executor;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private volatile Generation generation;
+    private volatile Generation rebuilding;
+    private volatile boolean ready;
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final AtomicLong lastRebuildMillis = new AtomicLong(-1);
+
+    @Autowired
+    public BookSearchIndex(BookRepository repository, SearchProperties properties, TransactionTemplate transaction,
+                           TaskExecutor executor) {
+        this.repository = repository;
+        this.properties = properties;
+        this.transaction = transaction;
+        this.executor = executor;
+        this.generation = newGeneration();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isRebuilding() {
+        return building.get();
+    }
+
+    public int size() {
+        return generation.writer.getDocStats().numDocs;
+    }
+
+    public long lastRebuildMillis() {
+        return lastRebuildMillis.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        if (properties.isEnabled()) executor.execute(this::rebuild);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (!properties.isEnabled()) return;
+        // rebuilding first: read after generation, a swap in between would leave the change in neither
+        var next = rebuilding;
+        if (next != null) {
+            next.touched.add(event.getId());
+            apply(next, event);
+        }
+        var current = generation;
+        if (current != next) apply(current, event);
+    }
+
+    /**
+     * Every query term has to match the title or the author, either exactly or as a prefix. Exact title hits rank
+     * above exact author hits, which rank above prefix-only hits.
+     */
+    public List<BookResponse> search(String text, int limit) {
+        var query = parse(text);
+        if (query == null) return List.of();
+
+        var current = generation;
+        try {
+            if (current.dirty) {
+                current.dirty = false;
+                current.searchers.maybeRefreshBlocking();
+            }
+            var searcher = current.searchers.acquire();
+            try {
+                var hits = searcher.search(query, limit).scoreDocs;
+                var results = new ArrayList<BookResponse>(hits.length);
+                for (var hit : hits) results.add(toResponse(searcher.doc(hit.doc)));
+                return results;
+            } finally {
+                current.searchers.release(searcher);
+            }
+        } catch (AlreadyClosedException e) {
+            if (current == generation) throw e;
+            return search(text, limit);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Indexes the table into a new generation and swaps it in. Books written while the scan runs are indexed into
+     * both generations and re-read from the table once the scan is done, so the new generation never misses them.
+     */
+    public void rebuild() {
+        if (!building.compareAndSet(false, true)) return;
+        var started = System.nanoTime();
+        var next = newGeneration();
+        var pool = Executors.newFixedThreadPool(Math.max(1, properties.getRebuildThreads()),
+                new CustomizableThreadFactory("search-rebuild-"));
+        try {
+            rebuilding = next;
+
+            var min = repository.findMinId();
+            var max = repository.findMaxId();
+            var count = new AtomicLong();
+            if (min.isPresent() && max.isPresent()) {
+                var partitions = Math.max(1, properties.getRebuildThreads()) * PARTITIONS_PER_THREAD;
+                var span = Math.max(1, (max.get() - min.get() + partitions) / partitions);
+                var tasks = new ArrayList<Future<?>>();
+                for (long from = min.get(); from <= max.get(); from += span) {
+                    long to = Math.min(max.get(), from + span - 1), start = from;
+                    tasks.add(pool.submit(() -> indexRange(next, start, to, count)));
+                }
+                for (var task : tasks) task.get();
+            }
+
+            var previous = generation;
+            generation = next;
+            rebuilding = null;
+            reconcile(next, next.touched);
+            next.searchers.maybeRefreshBlocking();
+            ready = true;
+            previous.close();
+
+            lastRebuildMillis.set((System.nanoTime() - started) / 1_000_000);
+            log.info("Search index built with {} books in {} ms", count.get(), lastRebuildMillis.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandon(next);
+        } catch (ExecutionException | IOException | RuntimeException e) {
+            log.error("Search index rebuild failed", e);
+            abandon(next);
+        } finally {
+            pool.shutdownNow();
+            building.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        generation.close();
+    }
+
+    private void indexRange(Generation target, long from, long to, AtomicLong count) {
+        transaction.executeWithoutResult(status -> {
+            try (var books = repository.streamResponsesByIdRange(from, to)) {
+                books.forEach(book -> {
+                    try {
+                        target.writer.addDocument(toDocument(book));
+                        count.incrementAndGet();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        });
+    }
+
+    private void reconcile(Generation target, Set<Long> ids) throws IOException {
+        if (ids.isEmpty()) return;
+        var missing = new HashSet<>(ids);
+        for (var book : repository.findAllById(ids)) {
+            missing.remove(book.getId());
+            target.writer.updateDocument(idTerm(book.getId()),
+                    toDocument(new BookResponse(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(),
+                            book.getVersion())));
+        }
+        for (var id : missing) target.writer.deleteDocuments(idTerm(id));
+    }
+
+    private void apply(Generation target, BookChangedEvent event) {
+        try {
+            if (event.getType() == BookChangedEvent.Type.DELETED) {
+                target.writer.deleteDocuments(idTerm(event.getId()));
+            } else {
+                target.writer.updateDocument(idTerm(event.getId()), toDocument(event.getBook()));
+            }
+            target.dirty = true;
+        } catch (AlreadyClosedException e) {
+            // swapped out or abandoned meanwhile, so the change belongs in whichever generation replaced it
+            var current = generation;
+            if (current != target) apply(current, event);
+        } catch (IOException e) {
+            log.warn("Could not index book {}", event.getId(), e);
+        }
+    }
+
+    private Query parse(String text) {
+        var builder = new BooleanQuery.Builder();
+        var terms = 0;
+        try (var tokens = analyzer.tokenStream(TITLE, text)) {
+            var term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken() && terms < BooleanQuery.getMaxClauseCount() / 4) {
+                var token = term.toString();
+                var clause = new BooleanQuery.Builder()
+                        .add(new BoostQuery(new TermQuery(new Term(TITLE, token)), 4f), BooleanClause.Occur.SHOULD)
+                        .add(new BoostQuery(new TermQuery(new Term(AUTHOR, token)), 2f), BooleanClause.Occur.SHOULD)
+                        .add(new PrefixQuery(new Term(TITLE, token)), BooleanClause.Occur.SHOULD)
+                        .add(new BoostQuery(new PrefixQuery(new Term(AUTHOR, token)), 0.5f), BooleanClause.Occur.SHOULD)
+                        .build();
+                builder.add(clause, BooleanClause.Occur.MUST);
+                terms++;
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms == 0 ? null : builder.build();
+    }
+
+    private Generation newGeneration() {
+        try {
+            if (properties.getDirectory() == null) return new Generation(new ByteBuffersDirectory(), null);
+            var path = properties.getDirectory().resolve("gen-" + System.nanoTime());
+            return new Generation(FSDirectory.open(path), path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void abandon(Generation next) {
+        if (rebuilding == next) rebuilding = null;
+        if (generation != next) next.close();
+    }
+
+    private static Term idTerm(Long id) {
+        return new Term(ID, String.valueOf(id));
+    }
+
+    private static Document toDocument(BookResponse book) {
+        var document = new Document();
+        document.add(new StringField(ID, String.valueOf(book.getId()), Field.Store.YES));
+        document.add(new TextField(TITLE, book.getTitle(), Field.Store.YES));
+        document.add(new TextField(AUTHOR, book.getAuthor(), Field.Store.YES));
+        document.add(new StoredField(ISBN, book.getIsbn()));
+        document.add(new StoredField(VERSION, book.getVersion() == null ? 0L : book.getVersion()));
+        return document;
+    }
+
+    private static BookResponse toResponse(Document document) {
+        return new BookResponse(Long.valueOf(document.get(ID)), document.get(TITLE), document.get(AUTHOR),
+                document.get(ISBN), document.getField(VERSION).numericValue().longValue());
+    }
+
+    private class Generation {
+
+        final Directory directory;
+        final Path path;
+        final IndexWriter writer;
+        final SearcherManager searchers;
+        final Set<Long> touched = ConcurrentHashMap.newKeySet();
+        volatile boolean dirty;
+
+        Generation(Directory directory, Path path) throws IOException {
+            this.directory = directory;
+            this.path = path;
+            this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+            this.searchers = new SearcherManager(writer, null);
+        }
+
+        void close() {
+            try {
+                searchers.close();
+                writer.close();
+                directory.close();
+                if (path != null) FileSystemUtils.deleteRecursively(path);
+            } catch (IOException | AlreadyClosedException e) {
+                log.warn("Could not close search index generation", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.workshopspring.libraryapi.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Exposes the search index state under {@code /actuator/searchindex}; a POST starts a rebuild in the background.
+ */
+@Component
+@Endpoint(id = "searchindex")
+public class BookSearchIndexEndpoint {
+
+    private BookSearchIndex index;
+    private TaskExecutor executor;
+
+    @Autowired
+    public BookSearchIndexEndpoint(BookSearchIndex index, TaskExecutor executor) {
+        this.index = index;
+        this.executor = executor;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return Map.of(
+                "ready", index.isReady(),
+                "rebuilding", index.isRebuilding(),
+                "documents", index.size(),
+                "lastRebuildMillis", index.lastRebuildMillis());
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        if (!index.isRebuilding()) executor.execute(index::rebuild);
+        return status();
+    }
+}
@@ -0,0 +1,11 @@
+package com.workshopspring.libraryapi.services;
+
+import com.workshopspring.libraryapi.responses.BookChangesResponse;
+
+public interface BookChangeService {
+
+    /**
+     * Published changes after the cursor, oldest first. A null cursor starts from the beginning of the feed.
+     */
+    BookChangesResponse changes(String since, int size);
+}
@@ -0,0 +1,10 @@
+package com.workshopspring.libraryapi.services;
+
+import com.workshopspring.libraryapi.imports.CatalogueFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface BookExportService {
+    long export(OutputStream output, CatalogueFormat format) throws IOException;
+}
@@ -0,0 +1,13 @@
+package com.workshopspring.libraryapi.services;
+
+import com.workshopspring.libraryapi.imports.CatalogueFormat;
+import com.workshopspring.libraryapi.imports.ImportReport;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public interface BookImportService {
+    ImportReport importFile(Path file) throws IOException;
+
+    ImportReport importFile(Path file, CatalogueFormat format) throws IOException;
+}
@@ -0,0 +1,10 @@
+package com.workshopspring.libraryapi.services;
+
+import com.workshopspring.libraryapi.responses.BookSearchResponse;
+import com.workshopspring.libraryapi.responses.BookSuggestResponse;
+
+public interface BookSearchService {
+    BookSearchResponse search(String text, int size);
+
+    BookSuggestResponse suggest(String prefix, int size);
+}
@@ -1,20 +1,49 @@
 package com.workshopspring.libraryapi.services;
 
 import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.commands.LookupBooksCommand;
+import com.workshopspring.libraryapi.commands.PatchBookCommand;
 import com.workshopspring.libraryapi.commands.UpdateBookCommand;
 import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.queries.BookFilter;
+import com.workshopspring.libraryapi.responses.BatchCreateResponse;
+import com.workshopspring.libraryapi.responses.BookLookupResponse;
+import com.workshopspring.libraryapi.responses.BookPageResponse;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface BookService {
     Book save(CreateBookCommand book);
 
+    BatchCreateResponse saveAll(List<CreateBookCommand> books);
+
     Book findById(Long id);
 
+    /**
+     * Like {@link #findById(Long)} without the exception, for callers that expect misses.
+     */
+    Optional<Book> findOne(Long id);
+
+    Book findByIsbn(String isbn);
+
+    Long findVersion(Long id);
+
+    /**
+     * Resolves every id and ISBN with one query per key kind; missing keys are reported, not thrown.
+     */
+    BookLookupResponse lookup(LookupBooksCommand command);
+
+    BookPageResponse findAll(BookFilter filter, String cursor, int size);
+
     void delete(Long id);
 
     Book update(Long id, UpdateBookCommand book);
 
+    Book update(Long id, UpdateBookCommand book, Long expectedVersion);
+
+    Book patch(Long id, PatchBookCommand book, Long expectedVersion);
+
     void updateData(Book entity, UpdateBookCommand command);
 }
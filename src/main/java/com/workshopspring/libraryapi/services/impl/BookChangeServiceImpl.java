@@ -0,0 +1,37 @@
+package com.workshopspring.libraryapi.services.impl;
+
+import com.workshopspring.libraryapi.config.OutboxProperties;
+import com.workshopspring.libraryapi.queries.PageCursor;
+import com.workshopspring.libraryapi.repositories.BookChangeRepository;
+import com.workshopspring.libraryapi.responses.BookChangeResponse;
+import com.workshopspring.libraryapi.responses.BookChangesResponse;
+import com.workshopspring.libraryapi.services.BookChangeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+
+@Service
+public class BookChangeServiceImpl implements BookChangeService {
+
+    private BookChangeRepository repository;
+    private OutboxProperties properties;
+
+    @Autowired
+    public BookChangeServiceImpl(BookChangeRepository repository, OutboxProperties properties) {
+        this.repository = repository;
+        this.properties = properties;
+    }
+
+    @Override
+    public BookChangesResponse changes(String since, int size) {
+        var after = PageCursor.decode(since);
+        var limit = Math.max(1, Math.min(size, properties.getMaxFeedSize()));
+        var rows = repository.findByPositionGreaterThanOrderByPosition(after, PageRequest.of(0, limit));
+        var items = new ArrayList<BookChangeResponse>(rows.size());
+        for (var row : rows) items.add(BookChangeResponse.of(row));
+        var last = items.isEmpty() ? after : items.get(items.size() - 1).getPosition();
+        return new BookChangesResponse(items, PageCursor.encode(last));
+    }
+}
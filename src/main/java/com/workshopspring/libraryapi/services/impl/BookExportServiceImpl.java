@@ -0,0 +1,98 @@
+package com.workshopspring.libraryapi.services.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.imports.CatalogueFormat;
+import com.workshopspring.libraryapi.imports.CsvFields;
+import com.workshopspring.libraryapi.repositories.BookRepository;
+import com.workshopspring.libraryapi.services.BookExportService;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the whole catalogue from a forward-only cursor, detaching every book once written so the persistence
+ * context never holds more than the current row. The session ignores the second-level cache, so an export does
+ * not evict the hot books from the region by putting every row into it.
+ */
+@Service
+public class BookExportServiceImpl implements BookExportService {
+
+    private BookRepository repository;
+    private EntityManager entityManager;
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    public BookExportServiceImpl(BookRepository repository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long export(OutputStream output, CatalogueFormat format) throws IOException {
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        var writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+        var rows = format == CatalogueFormat.CSV ? exportCsv(writer) : exportNdjson(writer);
+        writer.flush();
+        return rows;
+    }
+
+    private long exportNdjson(Writer writer) throws IOException {
+        var generator = objectMapper.getFactory().createGenerator(writer)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setPrettyPrinter(new MinimalPrettyPrinter(""));
+        long rows = 0;
+        try (var books = repository.streamAll()) {
+            for (var iterator = books.iterator(); iterator.hasNext(); rows++) {
+                var book = iterator.next();
+                generator.writeObject(book);
+                generator.writeRaw('\n');
+                entityManager.detach(book);
+            }
+        }
+        generator.flush();
+        return rows;
+    }
+
+    private long exportCsv(Writer writer) throws IOException {
+        writer.write("id,title,author,isbn\n");
+        long rows = 0;
+        try (var books = repository.streamAll()) {
+            for (var iterator = books.iterator(); iterator.hasNext(); rows++) {
+                var book = iterator.next();
+                writeCsv(writer, book);
+                entityManager.detach(book);
+            }
+        }
+        return rows;
+    }
+
+    private void writeCsv(Writer writer, Book book) throws IOException {
+        writer.write(Long.toString(book.getId()));
+        writer.write(',');
+        writeCsvField(writer, book.getTitle());
+        writer.write(',');
+        writeCsvField(writer, book.getAuthor());
+        writer.write(',');
+        writeCsvField(writer, book.getIsbn());
+        writer.write('\n');
+    }
+
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        writer.write(CsvFields.quote(value));
+    }
+}
@@ -0,0 +1,198 @@
+package com.workshopspring.libraryapi.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.config.ImportProperties;
+import com.workshopspring.libraryapi.entity.ImportCheckpoint;
+import com.workshopspring.libraryapi.imports.CatalogueParser;
+import com.workshopspring.libraryapi.imports.CatalogueFormat;
+import com.workshopspring.libraryapi.imports.ImportReport;
+import com.workshopspring.libraryapi.imports.OffsetLineReader;
+import com.workshopspring.libraryapi.repositories.ImportCheckpointRepository;
+import com.workshopspring.libraryapi.services.BookImportService;
+import com.workshopspring.libraryapi.services.BookService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Streams a catalogue file through a reader thread, which parses records into chunks, and the calling thread,
+ * which writes each chunk with {@link BookService#saveAll} and advances the {@link ImportCheckpoint} in the same
+ * transaction. The bounded queue between them blocks the reader whenever the database falls behind.
+ */
+@Slf4j
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+    private BookService bookService;
+    private ImportCheckpointRepository checkpoints;
+    private TransactionTemplate transaction;
+    private ObjectMapper objectMapper;
+    private ImportProperties properties;
+
+    @Autowired
+    public BookImportServiceImpl(BookService bookService, ImportCheckpointRepository checkpoints,
+                                 TransactionTemplate transaction, ObjectMapper objectMapper,
+                                 ImportProperties properties) {
+        this.bookService = bookService;
+        this.checkpoints = checkpoints;
+        this.transaction = transaction;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    @Override
+    public ImportReport importFile(Path file) throws IOException {
+        return importFile(file, CatalogueFormat.of(file));
+    }
+
+    @Override
+    public ImportReport importFile(Path file, CatalogueFormat format) throws IOException {
+        var source = file.toAbsolutePath().normalize().toString();
+        var fingerprint = Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis();
+        var checkpoint = checkpoints.findById(source)
+                .filter(saved -> saved.getFingerprint().equals(fingerprint))
+                .orElseGet(() -> new ImportCheckpoint(source, fingerprint));
+
+        var channel = FileChannel.open(file, StandardOpenOption.READ);
+        try (var reader = new OffsetLineReader(channel, 0, properties.getReadBufferSize())) {
+            var header = format == CatalogueFormat.CSV ? reader.readLine() : null;
+            var parser = CatalogueParser.of(format, header, objectMapper);
+            var start = Math.max(checkpoint.getOffset(), reader.getOffset());
+            var report = new ImportReport(source, start);
+            log.info("Importing {} from offset {}", source, start);
+
+            reader.seek(start);
+            run(reader, parser, checkpoint, report);
+            log.info("Imported {}: {} read, {} imported, {} rejected, {} rows/s", source, report.getRead(),
+                    report.getImported(), report.getRejected(), Math.round(report.getRowsPerSecond()));
+            return report;
+        }
+    }
+
+    private void run(OffsetLineReader reader, CatalogueParser parser, ImportCheckpoint checkpoint,
+                     ImportReport report) throws IOException {
+        var queue = new ArrayBlockingQueue<Chunk>(properties.getQueueCapacity());
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "catalogue-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        var started = System.nanoTime();
+        try {
+            var producer = CompletableFuture.runAsync(() -> produce(reader, parser, queue), executor);
+            for (var chunk = queue.take(); !chunk.last; chunk = queue.take()) {
+                write(chunk, checkpoint, report);
+                report.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+                log.debug("Import progress {}: offset {}, {} read, {} rows/s", report.getSource(),
+                        report.getCommittedOffset(), report.getRead(), Math.round(report.getRowsPerSecond()));
+            }
+            producer.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) throw ((UncheckedIOException) e.getCause()).getCause();
+            throw new IllegalStateException("Catalogue import failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Catalogue import interrupted", e);
+        } finally {
+            executor.shutdownNow();
+            report.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private void produce(OffsetLineReader reader, CatalogueParser parser, BlockingQueue<Chunk> queue) {
+        try {
+            var chunk = new Chunk(properties.getChunkSize());
+            for (var record = readRecord(reader, parser); record != null; record = readRecord(reader, parser)) {
+                if (!record.isBlank()) {
+                    try {
+                        chunk.commands.add(parser.parse(record));
+                    } catch (IllegalArgumentException e) {
+                        chunk.malformed++;
+                    }
+                }
+                chunk.endOffset = reader.getOffset();
+                if (chunk.commands.size() + chunk.malformed >= properties.getChunkSize()) {
+                    queue.put(chunk);
+                    chunk = new Chunk(properties.getChunkSize());
+                }
+            }
+            if (!chunk.commands.isEmpty() || chunk.malformed > 0) queue.put(chunk);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                queue.put(Chunk.LAST);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Reads lines until they form a whole record, keeping the line breaks between them. Offsets are only taken
+     * between records, so a checkpoint never falls inside one.
+     */
+    private static String readRecord(OffsetLineReader reader, CatalogueParser parser) throws IOException {
+        var record = reader.readLine();
+        while (record != null && !parser.isComplete(record)) {
+            var terminator = reader.getTerminator();
+            var next = reader.readLine();
+            if (next == null) break;
+            record = record + terminator + next;
+        }
+        return record;
+    }
+
+    private void write(Chunk chunk, ImportCheckpoint checkpoint, ImportReport report) {
+        var result = transaction.execute(status -> {
+            var response = bookService.saveAll(chunk.commands);
+            checkpoint.setOffset(chunk.endOffset);
+            checkpoint.setImported(checkpoint.getImported() + response.getCreated().size());
+            checkpoint.setRejected(checkpoint.getRejected() + response.getErrors().size() + chunk.malformed);
+            checkpoints.save(checkpoint);
+            return response;
+        });
+        report.setCommittedOffset(chunk.endOffset);
+        report.setRead(report.getRead() + chunk.commands.size() + chunk.malformed);
+        report.setImported(report.getImported() + result.getCreated().size());
+        report.setRejected(report.getRejected() + result.getErrors().size() + chunk.malformed);
+    }
+
+    private static class Chunk {
+
+        static final Chunk LAST = new Chunk(0, true);
+
+        final List<CreateBookCommand> commands;
+        final boolean last;
+        int malformed;
+        long endOffset;
+
+        Chunk(int size) {
+            this(size, false);
+        }
+
+        private Chunk(int size, boolean last) {
+            this.commands = new ArrayList<>(size);
+            this.last = last;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.workshopspring.libraryapi.services.impl;
+
+import com.workshopspring.libraryapi.config.SearchProperties;
+import com.workshopspring.libraryapi.config.SuggestProperties;
+import com.workshopspring.libraryapi.exceptions.SearchUnavailableException;
+import com.workshopspring.libraryapi.responses.BookSearchResponse;
+import com.workshopspring.libraryapi.responses.BookSuggestResponse;
+import com.workshopspring.libraryapi.search.BookSearchIndex;
+import com.workshopspring.libraryapi.services.BookSearchService;
+import com.workshopspring.libraryapi.suggest.BookSuggester;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+
+@Service
+public class BookSearchServiceImpl implements BookSearchService {
+
+    private BookSearchIndex index;
+    private SearchProperties properties;
+    private BookSuggester suggester;
+    private SuggestProperties suggestProperties;
+
+    @Autowired
+    public BookSearchServiceImpl(BookSearchIndex index, SearchProperties properties, BookSuggester suggester,
+                                 SuggestProperties suggestProperties) {
+        this.index = index;
+        this.properties = properties;
+        this.suggester = suggester;
+        this.suggestProperties = suggestProperties;
+    }
+
+    @Override
+    public BookSearchResponse search(String text, int size) {
+        if (!properties.isEnabled() || !index.isReady()) throw new SearchUnavailableException();
+        if (text == null || text.isBlank()) return new BookSearchResponse(List.of());
+
+        var limit = Math.max(1, Math.min(size, properties.getMaxResults()));
+        return new BookSearchResponse(Collections.unmodifiableList(index.search(text, limit)));
+    }
+
+    @Override
+    public BookSuggestResponse suggest(String prefix, int size) {
+        if (!suggestProperties.isEnabled() || !suggester.isReady()) throw new SearchUnavailableException();
+
+        var limit = Math.max(1, Math.min(size, suggestProperties.getMaxResults()));
+        return new BookSuggestResponse(suggester.suggest(prefix, limit));
+    }
+}
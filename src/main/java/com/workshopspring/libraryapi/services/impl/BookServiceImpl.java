@@ -1,51 +1,249 @@
 package com.workshopspring.libraryapi.services.impl;
 
 import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.commands.LookupBooksCommand;
+import com.workshopspring.libraryapi.commands.PatchBookCommand;
 import com.workshopspring.libraryapi.commands.UpdateBookCommand;
+import com.workshopspring.libraryapi.config.CachingConfig;
 import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.events.BookChangedEvent;
+import com.workshopspring.libraryapi.exceptions.BatchItemError;
 import com.workshopspring.libraryapi.exceptions.DuplicatedISBN;
+import com.workshopspring.libraryapi.exceptions.InvalidISBN;
+import com.workshopspring.libraryapi.exceptions.PreconditionFailedException;
 import com.workshopspring.libraryapi.exceptions.ResourceNotFoundException;
+import com.workshopspring.libraryapi.index.IsbnIndex;
+import com.workshopspring.libraryapi.isbn.Isbn;
+import com.workshopspring.libraryapi.loading.BookLoader;
+import com.workshopspring.libraryapi.mappers.BookMapper;
+import com.workshopspring.libraryapi.queries.BookFilter;
+import com.workshopspring.libraryapi.queries.PageCursor;
 import com.workshopspring.libraryapi.repositories.BookRepository;
+import com.workshopspring.libraryapi.responses.BatchCreateResponse;
+import com.workshopspring.libraryapi.responses.BookLookupResponse;
+import com.workshopspring.libraryapi.responses.BookPageResponse;
+import com.workshopspring.libraryapi.responses.BookResponse;
+import com.workshopspring.libraryapi.routing.ReadYourWrites;
 import com.workshopspring.libraryapi.services.BookService;
-import org.hibernate.validator.constraints.ISBN;
-import org.modelmapper.ModelMapper;
+import com.workshopspring.libraryapi.writing.BookWriteBehind;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class BookServiceImpl implements BookService {
 
+    private static final int ISBN_LOOKUP_CHUNK = 1000;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String REPLICA_READ = "T(com.workshopspring.libraryapi.routing.ReplicaReads).isServed()";
+
     private BookRepository repository;
-    private ModelMapper mapper;
+    private BookMapper mapper;
+    private Validator validator;
+    private IsbnIndex isbnIndex;
+    private BookLoader loader;
+    private ApplicationEventPublisher events;
+    private TransactionTemplate transaction;
+    private BookWriteBehind writeBehind;
 
     @Autowired
-    public BookServiceImpl(BookRepository repository, ModelMapper mapper) {
+    public BookServiceImpl(BookRepository repository, BookMapper mapper, Validator validator, IsbnIndex isbnIndex,
+                           BookLoader loader, ApplicationEventPublisher events, TransactionTemplate transaction,
+                           BookWriteBehind writeBehind) {
         this.repository = repository;
         this.mapper = mapper;
+        this.validator = validator;
+        this.isbnIndex = isbnIndex;
+        this.loader = loader;
+        this.events = events;
+        this.transaction = transaction;
+        this.writeBehind = writeBehind;
     }
 
+    /**
+     * Not {@code @Transactional}: with write-behind on, a caller waiting for its group commit must not hold a
+     * connection of its own. Creates made inside a caller's transaction always commit with it.
+     */
     @Override
     public Book save(CreateBookCommand command) {
-        if(repository.existsByIsbn(command.getIsbn())) throw new DuplicatedISBN("Duplicated ISBN", "Book");
-        var book = mapper.map(command, Book.class);
-        return repository.save(book);
+        var isbnKey = Isbn.parse(command.getIsbn());
+        if(isbnKey == Isbn.INVALID) throw new InvalidISBN("Invalid ISBN", "Book");
+        if (writeBehind.isEnabled() && !TransactionSynchronizationManager.isActualTransactionActive()
+                && validator.validate(command).isEmpty()) {
+            var queued = writeBehind.trySave(command);
+            if (queued != null) {
+                ReadYourWrites.wrote();
+                return queued;
+            }
+        }
+        return transaction.execute(status -> insert(command, isbnKey));
+    }
+
+    @Override
+    @Transactional
+    public BatchCreateResponse saveAll(List<CreateBookCommand> commands) {
+        var errors = new ArrayList<BatchItemError>();
+        var accepted = new LinkedHashMap<Long, Integer>();
+
+        for (int i = 0; i < commands.size(); i++) {
+            var command = commands.get(i);
+            if (command == null) {
+                errors.add(new BatchItemError(i, null, "Invalid book", List.of("must not be null")));
+                continue;
+            }
+            var violations = validator.validate(command);
+            if (!violations.isEmpty()) {
+                errors.add(new BatchItemError(i, command.getIsbn(), "Invalid book", messagesOf(violations)));
+            } else if (accepted.putIfAbsent(Isbn.parse(command.getIsbn()), i) != null) {
+                errors.add(duplicatedIsbnError(i, command.getIsbn()));
+            }
+        }
+
+        var existing = findExistingIsbnKeys(accepted.keySet());
+        var books = new ArrayList<Book>(accepted.size());
+        for (Map.Entry<Long, Integer> entry : accepted.entrySet()) {
+            if (existing.contains(entry.getKey())) {
+                errors.add(duplicatedIsbnError(entry.getValue(), commands.get(entry.getValue()).getIsbn()));
+            } else {
+                books.add(mapper.toEntity(commands.get(entry.getValue())));
+            }
+        }
+
+        var created = books.isEmpty() ? books : insertAll(books);
+        if (!created.isEmpty()) ReadYourWrites.wrote();
+        var responses = new ArrayList<BookResponse>(created.size());
+        for (var book : created) {
+            var response = mapper.toResponse(book);
+            responses.add(response);
+            events.publishEvent(BookChangedEvent.saved(response));
+        }
+        errors.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        return new BatchCreateResponse(responses, errors);
     }
 
+    /**
+     * A book read from the replica is returned but not cached: a cached copy outlives the replica's lag, so it
+     * would keep serving the pre-update book after the replica has caught up. Concurrent misses are already
+     * collapsed by the loader, hence no {@code sync}, which would not allow {@code unless}. Not
+     * {@code @Transactional}: callers waiting on the loader hold no connection, only the query that serves them does.
+     */
     @Override
+    @Cacheable(cacheNames = CachingConfig.BOOKS, key = "#id", unless = REPLICA_READ)
     public Book findById(Long id) {
-        return repository.findById(id).orElseThrow(() -> new ResourceNotFoundException(id));
+        return loader.load(id).orElseThrow(() -> new ResourceNotFoundException(id));
     }
 
     @Override
-    public Book update(Long id, UpdateBookCommand book) {
-        return null;
+    @Cacheable(cacheNames = CachingConfig.BOOKS, key = "#id", unless = "#result == null || " + REPLICA_READ)
+    public Optional<Book> findOne(Long id) {
+        return loader.load(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Long findVersion(Long id) {
+        return repository.findVersionById(id).orElseThrow(() -> new ResourceNotFoundException(id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Book findByIsbn(String isbn) {
+        var isbnKey = Isbn.parse(isbn);
+        if (isbnKey == Isbn.INVALID) throw new ResourceNotFoundException(isbn);
+        return repository.findByIsbnKey(isbnKey).orElseThrow(() -> new ResourceNotFoundException(isbn));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookLookupResponse lookup(LookupBooksCommand command) {
+        var found = new ArrayList<BookResponse>();
+        if (command.getIds() != null && !command.getIds().isEmpty()) {
+            for (var book : repository.findAllById(new HashSet<>(command.getIds()))) found.add(mapper.toResponse(book));
+        }
+        if (command.getIsbns() != null && !command.getIsbns().isEmpty()) {
+            var isbnKeys = new HashSet<Long>();
+            for (var isbn : command.getIsbns()) {
+                var isbnKey = Isbn.parse(isbn);
+                if (isbnKey != Isbn.INVALID) isbnKeys.add(isbnKey);
+            }
+            if (!isbnKeys.isEmpty()) {
+                for (var book : repository.findAllByIsbnKeyIn(isbnKeys)) found.add(mapper.toResponse(book));
+            }
+        }
+        return BookLookupResponse.of(command, found);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookPageResponse findAll(BookFilter filter, String cursor, int size) {
+        var limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        var books = repository.findPage(filter, PageCursor.decode(cursor), limit + 1);
+        if (books.size() <= limit) return new BookPageResponse(Collections.unmodifiableList(books), null);
+
+        var page = books.subList(0, limit);
+        return new BookPageResponse(Collections.unmodifiableList(page), PageCursor.encode(page.get(limit - 1).getId()));
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CachingConfig.BOOKS, key = "#id")
+    public Book update(Long id, UpdateBookCommand command) {
+        return update(id, command, null);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CachingConfig.BOOKS, key = "#id")
+    public Book update(Long id, UpdateBookCommand command, Long expectedVersion) {
+        var book = findForWrite(id, expectedVersion);
+        var previous = mapper.toResponse(book);
+        updateData(book, command);
+        return flush(book, expectedVersion, previous);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CachingConfig.BOOKS, key = "#id")
+    public Book patch(Long id, PatchBookCommand command, Long expectedVersion) {
+        var book = findForWrite(id, expectedVersion);
+        var previous = mapper.toResponse(book);
+        if (command.getTitle() != null) book.setTitle(command.getTitle());
+        if (command.getAuthor() != null) book.setAuthor(command.getAuthor());
+        return flush(book, expectedVersion, previous);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CachingConfig.BOOKS, key = "#id")
     public void delete(Long id) {
         try {
+            var previous = repository.findById(id).map(mapper::toResponse).orElse(null);
             repository.deleteById(id);
+            isbnIndex.removed();
+            ReadYourWrites.wrote();
+            events.publishEvent(BookChangedEvent.deleted(id, previous));
         } catch (EmptyResultDataAccessException e) {
             throw new ResourceNotFoundException(id);
         }
@@ -56,4 +254,86 @@ public class BookServiceImpl implements BookService {
         entity.setTitle(command.getTitle());
         entity.setAuthor(command.getAuthor());
     }
+
+    private Book insert(CreateBookCommand command, long isbnKey) {
+        if(isbnIndex.mightContain(isbnKey) && repository.existsByIsbnKey(isbnKey)) throw new DuplicatedISBN("Duplicated ISBN", "Book");
+        var book = mapper.toEntity(command);
+        try {
+            var saved = repository.saveAndFlush(book);
+            isbnIndex.add(isbnKey);
+            ReadYourWrites.wrote();
+            events.publishEvent(BookChangedEvent.saved(mapper.toResponse(saved)));
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            throw translateIsbnViolation(e);
+        }
+    }
+
+    private Book findForWrite(Long id, Long expectedVersion) {
+        var book = repository.findById(id).orElseThrow(() -> new ResourceNotFoundException(id));
+        if (expectedVersion != null && !expectedVersion.equals(book.getVersion())) {
+            throw new PreconditionFailedException(id);
+        }
+        return book;
+    }
+
+    private Book flush(Book book, Long expectedVersion, BookResponse previous) {
+        try {
+            var saved = repository.saveAndFlush(book);
+            ReadYourWrites.wrote();
+            events.publishEvent(BookChangedEvent.updated(previous, mapper.toResponse(saved)));
+            return saved;
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion != null) throw new PreconditionFailedException(book.getId());
+            throw e;
+        }
+    }
+
+    private List<Book> insertAll(List<Book> books) {
+        try {
+            var created = repository.insertAll(books);
+            created.forEach(book -> isbnIndex.add(book.getIsbnKey()));
+            return created;
+        } catch (DataIntegrityViolationException e) {
+            throw translateIsbnViolation(e);
+        }
+    }
+
+    private RuntimeException translateIsbnViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                var constraint = ((ConstraintViolationException) cause).getConstraintName();
+                if (constraint != null && constraint.toLowerCase(Locale.ROOT).contains(Book.ISBN_UNIQUE_INDEX)) {
+                    return new DuplicatedISBN("Duplicated ISBN", "Book");
+                }
+            }
+        }
+        return e;
+    }
+
+    private Set<Long> findExistingIsbnKeys(Set<Long> isbnKeys) {
+        var existing = new HashSet<Long>();
+        var chunk = new ArrayList<Long>(ISBN_LOOKUP_CHUNK);
+        for (Long isbnKey : isbnKeys) {
+            if (!isbnIndex.mightContain(isbnKey)) continue;
+            chunk.add(isbnKey);
+            if (chunk.size() == ISBN_LOOKUP_CHUNK) {
+                existing.addAll(repository.findExistingIsbnKeys(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) existing.addAll(repository.findExistingIsbnKeys(chunk));
+        return existing;
+    }
+
+    private BatchItemError duplicatedIsbnError(int index, String isbn) {
+        return new BatchItemError(index, isbn, "Duplicated ISBN", List.of("ISBN already registered!"));
+    }
+
+    private List<String> messagesOf(Set<ConstraintViolation<CreateBookCommand>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.toList());
+    }
 }
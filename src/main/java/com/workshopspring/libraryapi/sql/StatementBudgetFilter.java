@@ -0,0 +1,53 @@
+package com.workshopspring.libraryapi.sql;
+
+import com.workshopspring.libraryapi.config.SqlProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Records the statements each request issues on its own thread and logs the requests that go over the statement
+ * count or time budget, together with any statement repeated often enough to suggest an N+1 pattern. The recording
+ * is left in the {@link #RECORDING} request attribute.
+ */
+@Slf4j
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    public static final String RECORDING = StatementBudgetFilter.class.getName() + ".recording";
+
+    private final SqlProperties properties;
+
+    public StatementBudgetFilter(SqlProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var recording = StatementRecorder.start();
+        request.setAttribute(RECORDING, recording);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            StatementRecorder.stop(recording);
+            check(request, recording);
+        }
+    }
+
+    private void check(HttpServletRequest request, StatementRecording recording) {
+        var overCount = recording.count() > properties.getMaxStatementsPerRequest();
+        var overTime = recording.elapsedMillis() > properties.getMaxStatementTimePerRequest().toMillis();
+        var repeated = recording.repeated(properties.getRepeatedStatementThreshold());
+        if (!overCount && !overTime && repeated.isEmpty()) return;
+
+        log.warn("{} {} issued {} statements in {} ms (budget {} statements, {} ms){}", request.getMethod(),
+                request.getRequestURI(), recording.count(), recording.elapsedMillis(),
+                properties.getMaxStatementsPerRequest(), properties.getMaxStatementTimePerRequest().toMillis(),
+                repeated.isEmpty() ? "" : ", repeated: " + repeated);
+    }
+}
@@ -0,0 +1,38 @@
+package com.workshopspring.libraryapi.sql;
+
+/**
+ * Thread-bound recording of the statements going through the proxied data source. Recordings nest: a statement
+ * counts towards every recording open on the thread. Work handed to other threads is not recorded.
+ */
+public final class StatementRecorder {
+
+    private static final ThreadLocal<StatementRecording> CURRENT = new ThreadLocal<>();
+
+    private StatementRecorder() {
+    }
+
+    public static StatementRecording start() {
+        var recording = new StatementRecording(CURRENT.get());
+        CURRENT.set(recording);
+        return recording;
+    }
+
+    public static void stop(StatementRecording recording) {
+        if (recording.parent() == null) CURRENT.remove();
+        else CURRENT.set(recording.parent());
+    }
+
+    public static StatementRecording record(Runnable action) {
+        var recording = start();
+        try {
+            action.run();
+        } finally {
+            stop(recording);
+        }
+        return recording;
+    }
+
+    static StatementRecording current() {
+        return CURRENT.get();
+    }
+}
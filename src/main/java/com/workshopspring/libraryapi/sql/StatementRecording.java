@@ -0,0 +1,63 @@
+package com.workshopspring.libraryapi.sql;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The JDBC statements executed on one thread between {@link StatementRecorder#start()} and
+ * {@link StatementRecorder#stop(StatementRecording)}. A JDBC batch is one execution, however many rows it carries.
+ */
+public final class StatementRecording {
+
+    private final StatementRecording parent;
+    private final Map<String, Integer> executions = new LinkedHashMap<>();
+    private int count;
+    private long elapsedNanos;
+
+    StatementRecording(StatementRecording parent) {
+        this.parent = parent;
+    }
+
+    StatementRecording parent() {
+        return parent;
+    }
+
+    void record(String sql, long nanos) {
+        for (var recording = this; recording != null; recording = recording.parent) {
+            recording.count++;
+            recording.elapsedNanos += nanos;
+            recording.executions.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * Executions per distinct SQL text, in first-seen order.
+     */
+    public Map<String, Integer> executions() {
+        return executions;
+    }
+
+    /**
+     * Statements run at least {@code threshold} times, the usual signature of an N+1 access pattern.
+     */
+    public Map<String, Integer> repeated(int threshold) {
+        return executions.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    @Override
+    public String toString() {
+        return count + " statements in " + elapsedMillis() + " ms " + executions;
+    }
+}
@@ -0,0 +1,53 @@
+package com.workshopspring.libraryapi.sql;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Feeds executed statements to the thread's {@link StatementRecording} and logs any single statement slower
+ * than the threshold, recording or not.
+ */
+@Slf4j
+public class StatementRecordingListener implements QueryExecutionListener {
+
+    private static final String STARTED = StatementRecordingListener.class.getName() + ".started";
+
+    private final long slowStatementNanos;
+
+    public StatementRecordingListener(Duration slowStatementThreshold) {
+        this.slowStatementNanos = slowStatementThreshold.toNanos();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        execution.addCustomValue(STARTED, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        var started = execution.getCustomValue(STARTED, Long.class);
+        var nanos = started == null ? 0 : System.nanoTime() - started;
+        var sql = queries.size() == 1 ? queries.get(0).getQuery() : join(queries);
+
+        var recording = StatementRecorder.current();
+        if (recording != null) recording.record(sql, nanos);
+        if (nanos > slowStatementNanos) {
+            log.warn("Slow statement ({} ms{}): {}", nanos / 1_000_000,
+                    execution.isBatch() ? ", batch of " + execution.getBatchSize() : "", sql);
+        }
+    }
+
+    private static String join(List<QueryInfo> queries) {
+        var sql = new StringBuilder();
+        for (var query : queries) {
+            if (sql.length() > 0) sql.append("; ");
+            sql.append(query.getQuery());
+        }
+        return sql.toString();
+    }
+}
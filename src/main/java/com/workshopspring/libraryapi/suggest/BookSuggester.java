@@ -0,0 +1,130 @@
+package com.workshopspring.libraryapi.suggest;
+
+import com.workshopspring.libraryapi.config.SuggestProperties;
+import com.workshopspring.libraryapi.events.BookChangedEvent;
+import com.workshopspring.libraryapi.queries.BookField;
+import com.workshopspring.libraryapi.repositories.BookRepository;
+import com.workshopspring.libraryapi.responses.BookResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Typeahead over titles and authors ranked by how many books carry them, served from a {@link SuggestSnapshot}
+ * built from the table on startup. Writes adjust the live snapshot after commit. A rebuild replays the writes
+ * that arrive while it scans onto the new snapshot before swapping it in, so lookups only ever read a volatile
+ * reference.
+ */
+@Slf4j
+@Component
+public class BookSuggester {
+
+    private BookRepository repository;
+    private SuggestProperties properties;
+    private TransactionTemplate transaction;
+    private TaskExecutor executor;
+
+    private volatile SuggestSnapshot snapshot = SuggestSnapshot.builder().build();
+    private volatile boolean ready;
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final Object writes = new Object();
+    private List<BookChangedEvent> pending;
+
+    @Autowired
+    public BookSuggester(BookRepository repository, SuggestProperties properties, TransactionTemplate transaction,
+                         TaskExecutor executor, MeterRegistry registry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.transaction = transaction;
+        this.executor = executor;
+        Gauge.builder("library.suggest.entries", this, suggester -> suggester.snapshot.size()).register(registry);
+        Gauge.builder("library.suggest.memory", this, suggester -> suggester.snapshot.memoryBytes())
+                .baseUnit("bytes").register(registry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return snapshot.suggest(prefix, limit);
+    }
+
+    public long memoryBytes() {
+        return snapshot.memoryBytes();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        if (properties.isEnabled()) executor.execute(this::rebuild);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (!properties.isEnabled()) return;
+        SuggestSnapshot current;
+        synchronized (writes) {
+            current = snapshot;
+            apply(current, event);
+            if (pending != null) pending.add(event);
+        }
+        if (ready && current.overlaySize() > properties.getRebuildAfterOverlaySize() && !building.get()) {
+            executor.execute(this::rebuild);
+        }
+    }
+
+    public void rebuild() {
+        if (!building.compareAndSet(false, true)) return;
+        try {
+            synchronized (writes) {
+                pending = new ArrayList<>();
+            }
+            var builder = SuggestSnapshot.builder();
+            transaction.executeWithoutResult(status -> {
+                var min = repository.findMinId();
+                var max = repository.findMaxId();
+                if (min.isEmpty() || max.isEmpty()) return;
+                try (var books = repository.streamResponsesByIdRange(min.get(), max.get())) {
+                    books.forEach(book -> builder.add(BookField.TITLE, book.getTitle(), 1)
+                            .add(BookField.AUTHOR, book.getAuthor(), 1));
+                }
+            });
+            var next = builder.build();
+            synchronized (writes) {
+                // a write committed between creating the log and the scan's snapshot is counted twice; only its
+                // weight is off, and the next rebuild settles it
+                pending.forEach(event -> apply(next, event));
+                snapshot = next;
+            }
+            ready = true;
+            log.info("Suggester built with {} entries ({} KB)", next.size(), next.memoryBytes() / 1024);
+        } finally {
+            synchronized (writes) {
+                pending = null;
+            }
+            building.set(false);
+        }
+    }
+
+    private static void apply(SuggestSnapshot target, BookChangedEvent event) {
+        adjust(target, event.getPrevious(), -1);
+        adjust(target, event.getBook(), 1);
+    }
+
+    private static void adjust(SuggestSnapshot target, BookResponse book, int delta) {
+        if (book == null) return;
+        target.adjust(BookField.TITLE, book.getTitle(), delta);
+        target.adjust(BookField.AUTHOR, book.getAuthor(), delta);
+    }
+}
@@ -0,0 +1,305 @@
+package com.workshopspring.libraryapi.suggest;
+
+import com.workshopspring.libraryapi.queries.BookField;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.regex.Pattern;
+
+/**
+ * Sorted, packed table of normalised title and author values with their book counts. Keys and display labels live in
+ * two shared byte pools addressed by offset, one byte per char when every value is Latin-1 as compact strings do, so an
+ * entry costs its characters plus a few ints instead of two String objects. A prefix maps to one contiguous range found
+ * by binary search; the top-k of that range by weight is picked with a bounded heap. The key set is fixed at build time
+ * but weights are atomic counters, and values first seen afterwards go to a sorted overlay, so lookups never lock while
+ * writes keep applying.
+ */
+public final class SuggestSnapshot {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    private static final BookField[] FIELDS = BookField.values();
+
+    private final Pool keys;
+    private final int[] keyStarts;
+    private final Pool labels;
+    private final int[] labelStarts;
+    private final byte[] fields;
+    private final AtomicIntegerArray weights;
+    private final ConcurrentSkipListMap<String, Added> overlay = new ConcurrentSkipListMap<>();
+
+    private SuggestSnapshot(Pool keys, int[] keyStarts, Pool labels, int[] labelStarts, byte[] fields,
+                            int[] weights) {
+        this.keys = keys;
+        this.keyStarts = keyStarts;
+        this.labels = labels;
+        this.labelStarts = labelStarts;
+        this.fields = fields;
+        this.weights = new AtomicIntegerArray(weights);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Lower-cases, strips accents and collapses punctuation and whitespace, so "Gödel, Escher" and "godel escher"
+     * share a key.
+     */
+    public static String normalize(String value) {
+        if (value == null) return "";
+        var decomposed = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(decomposed.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    public int size() {
+        return fields.length + overlay.size();
+    }
+
+    public int overlaySize() {
+        return overlay.size();
+    }
+
+    /**
+     * Approximate retained heap of the packed arrays plus the overlay, assuming compressed oops.
+     */
+    public long memoryBytes() {
+        long arrays = array(keys.bytes.length) + array(labels.bytes.length) + array(keyStarts.length * 4L)
+                + array(labelStarts.length * 4L) + array(fields.length) + array(fields.length * 4L) + 16;
+        long added = 0;
+        for (var entry : overlay.entrySet()) {
+            added += 64 + array(entry.getKey().length() * 2L) + array(entry.getValue().label.length() * 2L) + 80;
+        }
+        return arrays + added;
+    }
+
+    public void adjust(BookField field, String value, int delta) {
+        var key = normalize(value);
+        if (key.isEmpty()) return;
+        var index = find(key, field);
+        if (index >= 0) {
+            weights.addAndGet(index, delta);
+        } else {
+            overlay.computeIfAbsent(overlayKey(key, field), k -> new Added(label(value), field)).weight.addAndGet(delta);
+        }
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        var key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) return List.of();
+
+        var from = lowerBound(key);
+        var to = upperBound(key, from, fields.length);
+
+        var top = new PriorityQueue<Long>(limit + 1);
+        for (int i = from; i < to; i++) {
+            var weight = weights.get(i);
+            if (weight <= 0) continue;
+            // weight in the high bits, lower index wins ties
+            long packed = ((long) weight << 32) | (Integer.MAX_VALUE - i);
+            if (top.size() < limit) {
+                top.add(packed);
+            } else if (packed > top.peek()) {
+                top.poll();
+                top.add(packed);
+            }
+        }
+
+        var results = new ArrayList<Suggestion>(top.size() + 4);
+        for (var packed : top) {
+            var index = Integer.MAX_VALUE - (int) (packed & 0xffffffffL);
+            results.add(new Suggestion(labels.string(labelStarts[index], labelStarts[index + 1]), FIELDS[fields[index]],
+                    (int) (packed >>> 32)));
+        }
+        for (var added : overlay.subMap(key, true, key + Character.MAX_VALUE, false).values()) {
+            var weight = added.weight.get();
+            if (weight > 0) results.add(new Suggestion(added.label, added.field, weight));
+        }
+        results.sort(Comparator.comparingInt(Suggestion::getWeight).reversed()
+                .thenComparing(Suggestion::getText, String.CASE_INSENSITIVE_ORDER));
+        return results.size() > limit ? List.copyOf(results.subList(0, limit)) : List.copyOf(results);
+    }
+
+    private int find(String key, BookField field) {
+        int low = 0, high = fields.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(mid, key);
+            if (cmp == 0) cmp = Integer.compare(fields[mid], field.ordinal());
+            if (cmp < 0) low = mid + 1;
+            else if (cmp > 0) high = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0, high = fields.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(mid, key) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private int upperBound(String prefix, int low, int high) {
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (startsWith(mid, prefix)) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private int compare(int index, String key) {
+        int start = keyStarts[index], length = keyStarts[index + 1] - start, common = Math.min(length, key.length());
+        for (int i = 0; i < common; i++) {
+            int cmp = Character.compare(keys.charAt(start + i), key.charAt(i));
+            if (cmp != 0) return cmp;
+        }
+        return Integer.compare(length, key.length());
+    }
+
+    private boolean startsWith(int index, String prefix) {
+        int start = keyStarts[index];
+        if (keyStarts[index + 1] - start < prefix.length()) return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (keys.charAt(start + i) != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static String overlayKey(String key, BookField field) {
+        return key + '\u0000' + (char) field.ordinal();
+    }
+
+    private static String label(String value) {
+        return SPACES.matcher(value.trim()).replaceAll(" ");
+    }
+
+    private static long array(long payload) {
+        return (16 + payload + 7) & ~7L;
+    }
+
+    /**
+     * Chars packed into bytes: Latin-1 when every char fits, big-endian UTF-16 otherwise. Offsets count chars.
+     */
+    private static final class Pool {
+
+        final byte[] bytes;
+        final boolean latin1;
+
+        Pool(List<String> values, int length) {
+            var fits = true;
+            for (int i = 0; i < values.size() && fits; i++) {
+                var value = values.get(i);
+                for (int c = 0; c < value.length() && fits; c++) fits = value.charAt(c) <= 0xff;
+            }
+            latin1 = fits;
+            bytes = new byte[latin1 ? length : length * 2];
+            var offset = 0;
+            for (var value : values) {
+                for (int c = 0; c < value.length(); c++, offset++) {
+                    var ch = value.charAt(c);
+                    if (latin1) {
+                        bytes[offset] = (byte) ch;
+                    } else {
+                        bytes[offset * 2] = (byte) (ch >>> 8);
+                        bytes[offset * 2 + 1] = (byte) ch;
+                    }
+                }
+            }
+        }
+
+        char charAt(int index) {
+            if (latin1) return (char) (bytes[index] & 0xff);
+            return (char) (((bytes[index * 2] & 0xff) << 8) | (bytes[index * 2 + 1] & 0xff));
+        }
+
+        String string(int from, int to) {
+            if (latin1) return new String(bytes, from, to - from, StandardCharsets.ISO_8859_1);
+            return new String(bytes, from * 2, (to - from) * 2, StandardCharsets.UTF_16BE);
+        }
+    }
+
+    private static final class Added {
+
+        final String label;
+        final BookField field;
+        final AtomicInteger weight = new AtomicInteger();
+
+        Added(String label, BookField field) {
+            this.label = label;
+            this.field = field;
+        }
+    }
+
+    public static final class Builder {
+
+        private final Map<String, Entry> entries = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(BookField field, String value, int weight) {
+            var key = normalize(value);
+            if (key.isEmpty()) return this;
+            entries.computeIfAbsent(overlayKey(key, field), k -> new Entry(key, label(value), field)).weight += weight;
+            return this;
+        }
+
+        public SuggestSnapshot build() {
+            var sorted = new ArrayList<>(entries.entrySet());
+            sorted.sort(Map.Entry.comparingByKey());
+
+            int count = sorted.size(), keyChars = 0, labelChars = 0;
+            for (var entry : sorted) {
+                keyChars += entry.getValue().key.length();
+                labelChars += entry.getValue().label.length();
+            }
+            var keys = new ArrayList<String>(count);
+            var labels = new ArrayList<String>(count);
+            var keyStarts = new int[count + 1];
+            var labelStarts = new int[count + 1];
+            var fields = new byte[count];
+            var weights = new int[count];
+            for (int i = 0; i < count; i++) {
+                var entry = sorted.get(i).getValue();
+                keys.add(entry.key);
+                labels.add(entry.label);
+                keyStarts[i + 1] = keyStarts[i] + entry.key.length();
+                labelStarts[i + 1] = labelStarts[i] + entry.label.length();
+                fields[i] = (byte) entry.field.ordinal();
+                weights[i] = entry.weight;
+            }
+            return new SuggestSnapshot(new Pool(keys, keyChars), keyStarts, new Pool(labels, labelChars), labelStarts,
+                    fields, weights);
+        }
+
+        private static final class Entry {
+
+            final String key;
+            final String label;
+            final BookField field;
+            int weight;
+
+            Entry(String key, String label, BookField field) {
+                this.key = key;
+                this.label = label;
+                this.field = field;
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.workshopspring.libraryapi.suggest;
+
+import com.workshopspring.libraryapi.queries.BookField;
+import lombok.Value;
+
+/**
+ * A title or author completing the typed prefix, with the number of books carrying it.
+ */
+@Value
+public class Suggestion {
+
+    String text;
+    BookField field;
+    int weight;
+}
@@ -0,0 +1,259 @@
+package com.workshopspring.libraryapi.writing;
+
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.config.WriteBehindProperties;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.exceptions.BatchItemError;
+import com.workshopspring.libraryapi.exceptions.DuplicatedISBN;
+import com.workshopspring.libraryapi.responses.BatchCreateResponse;
+import com.workshopspring.libraryapi.responses.BookResponse;
+import com.workshopspring.libraryapi.services.BookService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Group commit for single-book creates. Callers put their command on a bounded lock-free queue and wait; one
+ * flusher thread drains it into a single {@link BookService#saveAll} transaction per window, which closes once it
+ * holds {@code maxBatchSize} creates or {@code maxWait} after its first one. Callers are completed only after that
+ * transaction committed, so an acknowledged book is as durable as one saved on its own, and a crash before the
+ * commit fails callers that were never acknowledged. If the whole batch fails, for instance on a unique-index race
+ * with a concurrent insert, every create is retried in its own transaction so only the offender fails. Should the
+ * flusher thread die, the writer stops and fails whatever is still queued rather than leave callers waiting.
+ */
+@Slf4j
+@Component
+public class BookWriteBehind {
+
+    private static final String DUPLICATED = "Duplicated ISBN";
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final ObjectProvider<BookService> books;
+    private final WriteBehindProperties properties;
+
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private volatile int wakeAt = 1;
+    private volatile boolean running;
+    private final Thread flusher;
+
+    private final DistributionSummary batchSize;
+    private final Counter overflows;
+    private final Counter retries;
+    private final Counter timeouts;
+
+    @Autowired
+    public BookWriteBehind(ObjectProvider<BookService> books, WriteBehindProperties properties, MeterRegistry registry) {
+        this.books = books;
+        this.properties = properties;
+        this.batchSize = DistributionSummary.builder("library.write.behind.batch.size")
+                .description("Creates committed per transaction")
+                .register(registry);
+        this.overflows = registry.counter("library.write.behind.overflows");
+        this.retries = registry.counter("library.write.behind.retries");
+        this.timeouts = registry.counter("library.write.behind.timeouts");
+        this.flusher = new Thread(this::run, "book-write-behind");
+        this.flusher.setDaemon(true);
+        if (properties.isEnabled()) {
+            running = true;
+            flusher.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return running;
+    }
+
+    /**
+     * Queues the create and blocks until its batch has committed. Returns null without queueing when the queue is
+     * full or the writer is stopped, and after withdrawing a create whose flush did not start within
+     * {@code awaitTimeout}; the caller then saves on its own.
+     */
+    public Book trySave(CreateBookCommand command) {
+        if (!running) return null;
+        var waiting = queued.incrementAndGet();
+        if (waiting > properties.getQueueCapacity()) {
+            queued.decrementAndGet();
+            overflows.increment();
+            return null;
+        }
+        var pending = new Pending(command);
+        queue.offer(pending);
+        if (!running && queue.remove(pending)) {
+            queued.decrementAndGet();
+            return null;
+        }
+        if (waiting >= wakeAt) LockSupport.unpark(flusher);
+        return await(pending);
+    }
+
+    int queued() {
+        return queued.get();
+    }
+
+    /**
+     * Stops taking creates and flushes the ones already queued before returning.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join();
+    }
+
+    private void run() {
+        try {
+            flushUntilClosed();
+        } finally {
+            if (running) log.error("Write-behind flusher stopped, creates commit on their own from now on");
+            running = false;
+            var stopped = new IllegalStateException("Write-behind flusher stopped");
+            for (Pending pending; (pending = poll()) != null; ) pending.future.completeExceptionally(stopped);
+        }
+    }
+
+    private void flushUntilClosed() {
+        var capacity = properties.getMaxBatchSize();
+        var window = properties.getMaxWait().toNanos();
+        while (running || !queue.isEmpty()) {
+            var first = poll();
+            if (first == null) {
+                wakeAt = 1;
+                if (queue.isEmpty() && running) LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            var batch = new ArrayList<Pending>(capacity);
+            batch.add(first);
+            var deadline = System.nanoTime() + window;
+            while (batch.size() < capacity) {
+                var next = poll();
+                if (next != null) {
+                    batch.add(next);
+                    continue;
+                }
+                var left = deadline - System.nanoTime();
+                if (left <= 0 || !running) break;
+                wakeAt = capacity - batch.size();
+                if (queue.isEmpty()) LockSupport.parkNanos(this, left);
+            }
+            wakeAt = Integer.MAX_VALUE;
+            flush(batch);
+        }
+    }
+
+    private Pending poll() {
+        var pending = queue.poll();
+        if (pending != null) queued.decrementAndGet();
+        return pending;
+    }
+
+    private void flush(List<Pending> batch) {
+        batchSize.record(batch.size());
+        var commands = new ArrayList<CreateBookCommand>(batch.size());
+        for (var pending : batch) commands.add(pending.command);
+        try {
+            complete(batch, books.getObject().saveAll(commands));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            log.debug("Group commit of {} books failed, retrying one by one", batch.size(), e);
+            retries.increment();
+            for (var pending : batch) {
+                try {
+                    complete(List.of(pending), books.getObject().saveAll(List.of(pending.command)));
+                } catch (RuntimeException single) {
+                    pending.future.completeExceptionally(single);
+                }
+            }
+        } catch (Error e) {
+            for (var pending : batch) pending.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * {@code saveAll} lists the created books in command order and reports the rest by index.
+     */
+    private static void complete(List<Pending> batch, BatchCreateResponse response) {
+        var rejected = new HashMap<Integer, BatchItemError>();
+        for (var error : response.getErrors()) rejected.put(error.getIndex(), error);
+        var created = response.getCreated().iterator();
+        for (int i = 0; i < batch.size(); i++) {
+            var error = rejected.get(i);
+            var future = batch.get(i).future;
+            if (error == null) {
+                future.complete(toBook(created.next()));
+            } else if (DUPLICATED.equals(error.getMessage())) {
+                future.completeExceptionally(new DuplicatedISBN(DUPLICATED, "Book"));
+            } else {
+                future.completeExceptionally(new IllegalArgumentException(error.getMessage() + ": " + error.getErrors()));
+            }
+        }
+    }
+
+    private static Book toBook(BookResponse response) {
+        var book = new Book(response.getId(), response.getTitle(), response.getAuthor(), response.getIsbn());
+        book.setVersion(response.getVersion());
+        return book;
+    }
+
+    /**
+     * Waits up to {@code awaitTimeout}, then hands the create back if the flusher has not taken it yet. Queue removal
+     * and the flusher's poll cannot both succeed, so a withdrawn create is never also committed by a batch.
+     */
+    private Book await(Pending pending) {
+        try {
+            return pending.future.get(properties.getAwaitTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (TimeoutException | InterruptedException e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            if (queue.remove(pending)) {
+                queued.decrementAndGet();
+                timeouts.increment();
+                return null;
+            }
+        }
+        try {
+            return pending.future.join();
+        } catch (CompletionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+        if (cause instanceof Error) throw (Error) cause;
+        throw new CompletionException(cause);
+    }
+
+    private static final class Pending {
+
+        final CreateBookCommand command;
+        final CompletableFuture<Book> future = new CompletableFuture<>();
+
+        Pending(CreateBookCommand command) {
+            this.command = command;
+        }
+    }
+}
@@ -3,18 +3,40 @@ package com.workshopspring.libraryapi;
 import com.workshopspring.libraryapi.commands.CreateBookCommand;
 import com.workshopspring.libraryapi.commands.UpdateBookCommand;
 import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.isbn.Isbn;
+import com.workshopspring.libraryapi.responses.BookResponse;
 
 public class TestBase {
 
+    public static final String CLEAN_CODE_ISBN = "978-0-13-235088-4";
+
+    public static final String REFACTORING_ISBN = "9780201485677";
+
+    /**
+     * Builds the n-th valid ISBN-13 of the 979 prefix, for tests that need many distinct books.
+     */
+    public static String isbn(long n) {
+        var twelveDigits = 979_000_000_000L + n;
+        return Long.toString(twelveDigits * 10 + Isbn.checkDigit13(twelveDigits));
+    }
+
     protected CreateBookCommand makeCreateBookCommand() {
-        return new CreateBookCommand("Clean Code", "Robert C. Martin", "001");
+        return new CreateBookCommand("Clean Code", "Robert C. Martin", CLEAN_CODE_ISBN);
     }
 
     protected UpdateBookCommand makeUpdateBookCommand() {
         return new UpdateBookCommand("Refactoring", "Robert C. Martin");
     }
 
+    protected Book makeNewBook() {
+        return new Book("Clean Code", "Robert C. Martin", CLEAN_CODE_ISBN);
+    }
+
     protected Book makeBook() {
-        return new Book(1L,"Clean Code", "Robert C. Martin", "001");
+        return new Book(1L,"Clean Code", "Robert C. Martin", CLEAN_CODE_ISBN);
+    }
+
+    protected BookResponse makeBookResponse() {
+        return new BookResponse(1L, "Clean Code", "Robert C. Martin", CLEAN_CODE_ISBN, 0L);
     }
 }
@@ -3,9 +3,36 @@ package com.workshopspring.libraryapi.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.workshopspring.libraryapi.TestBase;
 import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.commands.LookupBooksCommand;
+import com.workshopspring.libraryapi.commands.PatchBookCommand;
+import com.workshopspring.libraryapi.config.ExportProperties;
+import com.workshopspring.libraryapi.config.HttpCacheProperties;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.exceptions.BatchItemError;
 import com.workshopspring.libraryapi.exceptions.DuplicatedISBN;
+import com.workshopspring.libraryapi.exceptions.PreconditionFailedException;
+import com.workshopspring.libraryapi.events.BookChangedEvent;
+import com.workshopspring.libraryapi.exceptions.ErrorResponses;
 import com.workshopspring.libraryapi.exceptions.ResourceNotFoundException;
+import com.workshopspring.libraryapi.exceptions.SearchUnavailableException;
+import com.workshopspring.libraryapi.queries.BookField;
+import com.workshopspring.libraryapi.queries.BookFilter;
+import com.workshopspring.libraryapi.responses.BatchCreateResponse;
+import com.workshopspring.libraryapi.responses.BookChangeResponse;
+import com.workshopspring.libraryapi.responses.BookChangesResponse;
+import com.workshopspring.libraryapi.responses.BookLookupResponse;
+import com.workshopspring.libraryapi.responses.BookPageResponse;
+import com.workshopspring.libraryapi.responses.BookSearchResponse;
+import com.workshopspring.libraryapi.responses.BookSuggestResponse;
+import com.workshopspring.libraryapi.imports.CatalogueFormat;
+import com.workshopspring.libraryapi.mappers.impl.BookMapperImpl;
+import com.workshopspring.libraryapi.services.BookChangeService;
+import com.workshopspring.libraryapi.services.BookExportService;
+import com.workshopspring.libraryapi.services.BookSearchService;
 import com.workshopspring.libraryapi.services.BookService;
+import com.workshopspring.libraryapi.suggest.Suggestion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,6 +43,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -24,11 +52,19 @@ import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilde
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
 @WebMvcTest
+@Import({BookMapperImpl.class, HttpCacheProperties.class, ExportProperties.class, SimpleMeterRegistry.class,
+        ErrorResponses.class})
 @AutoConfigureMockMvc
 public class BookControllerTest extends TestBase {
 
@@ -40,6 +76,15 @@ public class BookControllerTest extends TestBase {
     @MockBean
     BookService service;
 
+    @MockBean
+    BookExportService exportService;
+
+    @MockBean
+    BookSearchService searchService;
+
+    @MockBean
+    BookChangeService changeService;
+
     @Test
     @DisplayName("API - should create a book with success")
     public void createBookTest() throws Exception {
@@ -88,13 +133,128 @@ public class BookControllerTest extends TestBase {
                 .andExpect(MockMvcResultMatchers.jsonPath("errors", Matchers.hasSize(1)));
     }
 
+    @Test
+    @DisplayName("API - should create a batch of books reporting rejected items")
+    public void createBooksBatchTest() throws Exception {
+        var command = this.makeCreateBookCommand();
+        var duplicated = new BatchItemError(1, command.getIsbn(), "Duplicated ISBN", List.of("ISBN already registered!"));
+        BDDMockito.given(service.saveAll(Mockito.anyList()))
+                .willReturn(new BatchCreateResponse(List.of(this.makeBookResponse()), List.of(duplicated)));
+
+        var json = new ObjectMapper().writeValueAsString(List.of(command, command));
+        var request = this.createRequest(MockMvcRequestBuilders.post(BOOK_API.concat("/batch")), json);
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("created", Matchers.hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("errors[0].index").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("errors[0].message").value("Duplicated ISBN"));
+    }
+
+    @Test
+    @DisplayName("API - should reject a batch larger than the limit")
+    public void createBooksBatchTooLargeTest() throws Exception {
+        var json = new ObjectMapper().writeValueAsString(
+                Collections.nCopies(CreateBookCommand.MAX_BATCH + 1, this.makeCreateBookCommand()));
+        var request = this.createRequest(MockMvcRequestBuilders.post(BOOK_API.concat("/batch")), json);
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors[0]").value("must not exceed 500 books"));
+        Mockito.verify(service, Mockito.never()).saveAll(Mockito.anyList());
+    }
+
+    @Test
+    @DisplayName("API - should look books up in request order with the requested fields only")
+    public void lookupBooksTest() throws Exception {
+        var command = new LookupBooksCommand(List.of(1L, 99L), null, Set.of(BookField.TITLE, BookField.ISBN));
+        BDDMockito.given(service.lookup(Mockito.any(LookupBooksCommand.class)))
+                .willReturn(BookLookupResponse.of(command, List.of(this.makeBookResponse())));
+
+        var json = new ObjectMapper().writeValueAsString(command);
+        var request = this.createRequest(MockMvcRequestBuilders.post(BOOK_API.concat("/lookup")), json);
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("results", Matchers.hasSize(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("results[0].key").value("1"))
+                .andExpect(MockMvcResultMatchers.jsonPath("results[0].found").value(true))
+                .andExpect(MockMvcResultMatchers.jsonPath("results[0].book.title").value("Clean Code"))
+                .andExpect(MockMvcResultMatchers.jsonPath("results[0].book.isbn").value(CLEAN_CODE_ISBN))
+                .andExpect(MockMvcResultMatchers.jsonPath("results[0].book.author").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("results[1].key").value("99"))
+                .andExpect(MockMvcResultMatchers.jsonPath("results[1].found").value(false))
+                .andExpect(MockMvcResultMatchers.jsonPath("results[1].book").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("API - should reject a lookup without keys")
+    public void lookupWithoutKeysTest() throws Exception {
+        var request = this.createRequest(MockMvcRequestBuilders.post(BOOK_API.concat("/lookup")), "{\"ids\": []}");
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors", Matchers.hasSize(1)));
+        Mockito.verify(service, Mockito.never()).lookup(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("API - should search books by title and author")
+    public void searchBooksTest() throws Exception {
+        var book = this.makeBookResponse();
+        BDDMockito.given(searchService.search("tolk", 5)).willReturn(new BookSearchResponse(List.of(book)));
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/search")).param("q", "tolk").param("size", "5"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("items", Matchers.hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("items[0].title").value(book.getTitle()));
+    }
+
+    @Test
+    @DisplayName("API - should suggest titles and authors for a prefix")
+    public void suggestTest() throws Exception {
+        BDDMockito.given(searchService.suggest("cle", 10))
+                .willReturn(new BookSuggestResponse(List.of(new Suggestion("Clean Code", BookField.TITLE, 2))));
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/suggest")).param("prefix", "cle"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("items[0].text").value("Clean Code"))
+                .andExpect(MockMvcResultMatchers.jsonPath("items[0].field").value("title"))
+                .andExpect(MockMvcResultMatchers.jsonPath("items[0].weight").value(2));
+    }
+
+    @Test
+    @DisplayName("API - should page the change feed from a cursor")
+    public void changesTest() throws Exception {
+        var change = new BookChangeResponse(3L, BookChangedEvent.Type.DELETED, 1L, null, Instant.EPOCH);
+        BDDMockito.given(changeService.changes("Mg", 100)).willReturn(new BookChangesResponse(List.of(change), "Mw"));
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/changes")).param("since", "Mg"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("items[0].position").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("items[0].type").value("DELETED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("items[0].bookId").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("next").value("Mw"));
+    }
+
+    @Test
+    @DisplayName("API - should answer 503 while the search index is warming up")
+    public void searchUnavailableTest() throws Exception {
+        BDDMockito.given(searchService.search(Mockito.anyString(), Mockito.anyInt()))
+                .willThrow(new SearchUnavailableException());
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/search")).param("q", "tolkien"))
+                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "1"));
+    }
+
     @Test
     @DisplayName("API - should recover book details")
     public void findBookDetailsTest() throws Exception {
         var id = Long.valueOf(1L);
         var book = this.makeBook();
 
-        BDDMockito.given(service.findById(id)).willReturn(book);
+        BDDMockito.given(service.findOne(id)).willReturn(Optional.of(book));
         var request = this.createGetRequest("/1");
 
         mvc.perform(request)
@@ -106,17 +266,153 @@ public class BookControllerTest extends TestBase {
     }
 
     @Test
-    @DisplayName("API - should throw exception when try find nonexistent book")
-    public void notFoundBookTest() throws Exception {
+    @DisplayName("API - should answer 304 from the version lookup when the etag still matches")
+    public void findNotModifiedBookTest() throws Exception {
+        var id = Long.valueOf(1L);
+        BDDMockito.given(service.findVersion(id)).willReturn(7L);
+
+        var request = this.createGetRequest("/1").header("If-None-Match", "W/\"7\"");
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"7\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+        Mockito.verify(service, Mockito.never()).findOne(Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("API - should send the book with its etag when the client copy is stale")
+    public void findModifiedBookTest() throws Exception {
         var id = Long.valueOf(1L);
         var book = this.makeBook();
+        book.setVersion(8L);
+        BDDMockito.given(service.findVersion(id)).willReturn(8L);
+        BDDMockito.given(service.findOne(id)).willReturn(Optional.of(book));
 
-        BDDMockito.given(service.findById(Mockito.anyLong())).willThrow(new ResourceNotFoundException(id));
+        var request = this.createGetRequest("/1").header("If-None-Match", "\"7\"");
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"8\""))
+                .andExpect(MockMvcResultMatchers.header().string("Cache-Control", "max-age=0, must-revalidate, public"))
+                .andExpect(MockMvcResultMatchers.jsonPath("id").value(book.getId()));
+    }
+
+    @Test
+    @DisplayName("API - should answer 304 for an unchanged page")
+    public void listNotModifiedBooksTest() throws Exception {
+        var page = new BookPageResponse(List.of(this.makeBookResponse()), null);
+        BDDMockito.given(service.findAll(Mockito.any(), Mockito.isNull(), Mockito.anyInt())).willReturn(page);
+
+        var etag = mvc.perform(this.createGetRequest(""))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(this.createGetRequest("").header("If-None-Match", etag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("API - should recover book details by isbn")
+    public void findBookByIsbnTest() throws Exception {
+        var book = this.makeBook();
+        BDDMockito.given(service.findByIsbn("9780132350884")).willReturn(book);
+
+        mvc.perform(this.createGetRequest("/isbn/9780132350884"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("id").value(book.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("isbn").value(book.getIsbn()))
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"1-0\""));
+    }
+
+    @Test
+    @DisplayName("API - should not answer 304 by isbn for a different book re-created under the same isbn")
+    public void findByIsbnRecreatedTest() throws Exception {
+        var recreated = new Book(2L, "Clean Code", "Robert C. Martin", CLEAN_CODE_ISBN);
+        recreated.setVersion(0L);
+        BDDMockito.given(service.findByIsbn("9780132350884")).willReturn(recreated);
+
+        mvc.perform(this.createGetRequest("/isbn/9780132350884").header("If-None-Match", "\"1-0\""))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"2-0\""));
+        mvc.perform(this.createGetRequest("/isbn/9780132350884").header("If-None-Match", "\"2-0\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("API - should reject an invalid isbn")
+    public void createBookWithInvalidIsbnTest() throws Exception {
+        var command = new CreateBookCommand("Clean Code", "Robert C. Martin", "978-0-13-235088-5");
+        var request = this.createPostRequest(new ObjectMapper().writeValueAsString(command));
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors", Matchers.hasSize(1)));
+    }
+
+    @Test
+    @DisplayName("API - should list books filtered by author")
+    public void listBooksTest() throws Exception {
+        var book = this.makeBookResponse();
+        var filter = new BookFilter(book.getAuthor(), null, null);
+        BDDMockito.given(service.findAll(filter, "MQ", 10))
+                .willReturn(new BookPageResponse(List.of(book), "Mg"));
+
+        var request = this.createGetRequest("?author=" + book.getAuthor() + "&cursor=MQ&size=10");
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("items", Matchers.hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("items[0].id").value(book.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("items[0].title").value(book.getTitle()))
+                .andExpect(MockMvcResultMatchers.jsonPath("items[0].author").value(book.getAuthor()))
+                .andExpect(MockMvcResultMatchers.jsonPath("items[0].isbn").value(book.getIsbn()))
+                .andExpect(MockMvcResultMatchers.jsonPath("items[0].version").value(0))
+                .andExpect(MockMvcResultMatchers.jsonPath("next").value("Mg"));
+    }
+
+    @Test
+    @DisplayName("API - should write every response field and nothing internal")
+    public void findBookJsonShapeTest() throws Exception {
+        BDDMockito.given(service.findOne(1L)).willReturn(Optional.of(this.makeBook()));
+
+        mvc.perform(this.createGetRequest("/1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(
+                        "{\"id\":1,\"title\":\"Clean Code\",\"author\":\"Robert C. Martin\","
+                                + "\"isbn\":\"" + CLEAN_CODE_ISBN + "\",\"version\":null}", true));
+    }
+
+    @Test
+    @DisplayName("API - should stream the catalogue export")
+    public void exportBooksTest() throws Exception {
+        BDDMockito.willAnswer(invocation -> {
+            invocation.getArgument(0, java.io.OutputStream.class).write("1,Clean Code\n".getBytes());
+            return 1L;
+        }).given(exportService).export(Mockito.any(), Mockito.eq(CatalogueFormat.CSV));
+
+        var result = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/export")).param("format", "CSV"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        Assertions.assertThat(result.getRequest().getAsyncContext().getTimeout())
+                .isEqualTo(Duration.ofHours(1).toMillis());
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Content-Type", "text/csv"))
+                .andExpect(MockMvcResultMatchers.content().string("1,Clean Code\n"));
+    }
+
+    @Test
+    @DisplayName("API - should answer 404 when try find nonexistent book")
+    public void notFoundBookTest() throws Exception {
+        BDDMockito.given(service.findOne(Mockito.anyLong())).willReturn(Optional.empty());
         var request = this.createGetRequest("/1");
 
         mvc.perform(request)
                 .andExpect(MockMvcResultMatchers.status().isNotFound())
-                .andExpect(MockMvcResultMatchers.jsonPath("message").exists());
+                .andExpect(MockMvcResultMatchers.content().json(
+                        "{\"message\":\"Resource not found id: 1\",\"errors\":[]}", true));
     }
 
     @Test
@@ -165,6 +461,71 @@ public class BookControllerTest extends TestBase {
                 .andExpect(MockMvcResultMatchers.jsonPath("isbn").value(updatedBook.getIsbn()));
     }
 
+    @Test
+    @DisplayName("API - should update a book matching the if-match version")
+    public void updateBookWithIfMatchTest() throws Exception {
+        var id = Long.valueOf(1L);
+        var updatedBook = this.makeBook();
+        var command = this.makeUpdateBookCommand();
+        updatedBook.setTitle(command.getTitle());
+        updatedBook.setVersion(3L);
+        BDDMockito.given(service.update(id, command, 2L)).willReturn(updatedBook);
+
+        var request = this.createPutRequest("/1", new ObjectMapper().writeValueAsString(command))
+                .header("If-Match", "\"2\"");
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"3\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("title").value(command.getTitle()));
+    }
+
+    @Test
+    @DisplayName("API - should answer 412 when the book changed since the if-match version")
+    public void updateStaleBookTest() throws Exception {
+        var id = Long.valueOf(1L);
+        var command = this.makeUpdateBookCommand();
+        BDDMockito.given(service.update(id, command, 2L)).willThrow(new PreconditionFailedException(id));
+
+        var request = this.createPutRequest("/1", new ObjectMapper().writeValueAsString(command))
+                .header("If-Match", "\"2\"");
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed())
+                .andExpect(MockMvcResultMatchers.jsonPath("message").exists());
+    }
+
+    @Test
+    @DisplayName("API - should patch a book")
+    public void patchBookTest() throws Exception {
+        var id = Long.valueOf(1L);
+        var patchedBook = this.makeBook();
+        patchedBook.setAuthor("Uncle Bob");
+        patchedBook.setVersion(1L);
+        var command = new PatchBookCommand(null, "Uncle Bob");
+        BDDMockito.given(service.patch(id, command, null)).willReturn(patchedBook);
+
+        var request = this.createRequest(MockMvcRequestBuilders.patch(BOOK_API.concat("/1")),
+                new ObjectMapper().writeValueAsString(command));
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"1\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("author").value("Uncle Bob"))
+                .andExpect(MockMvcResultMatchers.jsonPath("title").value(patchedBook.getTitle()));
+    }
+
+    @Test
+    @DisplayName("API - should reject a blank patch field")
+    public void patchBlankFieldTest() throws Exception {
+        var request = this.createRequest(MockMvcRequestBuilders.patch(BOOK_API.concat("/1")),
+                new ObjectMapper().writeValueAsString(new PatchBookCommand(" ", null)));
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors", Matchers.hasSize(1)));
+    }
+
     @Test
     @DisplayName("API - should throw exception when try update a nonexistent book")
     public void updateNonExistentBookTest() throws Exception {
@@ -0,0 +1,173 @@
+package com.workshopspring.libraryapi.controller;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.commands.LookupBooksCommand;
+import com.workshopspring.libraryapi.commands.UpdateBookCommand;
+import com.workshopspring.libraryapi.queries.BookField;
+import com.workshopspring.libraryapi.responses.BookResponse;
+import com.workshopspring.libraryapi.services.BookService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+@ActiveProfiles({"test", "reactive"})
+@AutoConfigureWebTestClient
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive")
+public class ReactiveBookRoutesTest {
+
+    private static final String BOOK_API = "/api/books";
+
+    @Autowired
+    WebTestClient client;
+
+    @Autowired
+    BookService blockingService;
+
+    @Test
+    @DisplayName("Reactive API - should create a book and answer 304 while its etag still matches")
+    public void createAndFindTest() {
+        var command = new CreateBookCommand("Clean Code", "Robert C. Martin", TestBase.isbn(700_001));
+
+        var created = client.post().uri(BOOK_API).bodyValue(command).exchange()
+                .expectStatus().isCreated()
+                .expectBody(BookResponse.class).returnResult().getResponseBody();
+
+        Assertions.assertThat(created.getIsbn()).isEqualTo(command.getIsbn());
+        client.get().uri(BOOK_API + "/{id}", created.getId()).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"0\"")
+                .expectBody()
+                .jsonPath("title").isEqualTo("Clean Code")
+                .jsonPath("isbnKey").doesNotExist();
+        client.get().uri(BOOK_API + "/{id}", created.getId()).header("If-None-Match", "\"0\"").exchange()
+                .expectStatus().isNotModified();
+        client.get().uri(BOOK_API + "/isbn/{isbn}", command.getIsbn()).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"" + created.getId() + "-0\"")
+                .expectBody().jsonPath("id").isEqualTo(created.getId().intValue());
+    }
+
+    @Test
+    @DisplayName("Reactive API - should answer errors like the MVC API")
+    public void errorsTest() {
+        var command = new CreateBookCommand("Refactoring", "Martin Fowler", TestBase.isbn(700_002));
+        client.post().uri(BOOK_API).bodyValue(command).exchange().expectStatus().isCreated();
+
+        client.post().uri(BOOK_API).bodyValue(command).exchange()
+                .expectStatus().isEqualTo(422)
+                .expectBody().jsonPath("message").isEqualTo("Duplicated ISBN");
+        client.post().uri(BOOK_API).bodyValue(new CreateBookCommand("", "Martin Fowler", "123")).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("errors.length()").isEqualTo(2);
+        client.get().uri(BOOK_API + "/{id}", Long.MAX_VALUE).exchange()
+                .expectStatus().isNotFound();
+        client.get().uri(BOOK_API + "?cursor=%%%").exchange()
+                .expectStatus().isEqualTo(422);
+        client.get().uri(BOOK_API + "?size=many").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("message").isEqualTo("Invalid size: many");
+        client.get().uri(BOOK_API + "/export?format=XML").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("message").isEqualTo("Invalid format: XML");
+        client.post().uri(BOOK_API + "/batch").contentType(MediaType.APPLICATION_JSON).bodyValue("[null]").exchange()
+                .expectStatus().isEqualTo(422)
+                .expectBody().jsonPath("errors[0].errors[0]").isEqualTo("must not be null");
+        client.post().uri(BOOK_API + "/batch")
+                .bodyValue(Collections.nCopies(CreateBookCommand.MAX_BATCH + 1, command)).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("errors[0]").isEqualTo("must not exceed 500 books");
+    }
+
+    @Test
+    @DisplayName("Reactive API - should look books up by id and isbn in request order")
+    public void lookupTest() {
+        var book = client.post().uri(BOOK_API)
+                .bodyValue(new CreateBookCommand("Domain-Driven Design", "Eric Evans", TestBase.isbn(700_004)))
+                .exchange().expectBody(BookResponse.class).returnResult().getResponseBody();
+
+        client.post().uri(BOOK_API + "/lookup")
+                .bodyValue(new LookupBooksCommand(List.of(Long.MAX_VALUE, book.getId()), List.of(TestBase.isbn(700_004)),
+                        Set.of(BookField.TITLE)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("results.length()").isEqualTo(3)
+                .jsonPath("results[0].found").isEqualTo(false)
+                .jsonPath("results[1].book.title").isEqualTo("Domain-Driven Design")
+                .jsonPath("results[1].book.id").doesNotExist()
+                .jsonPath("results[2].key").isEqualTo(TestBase.isbn(700_004))
+                .jsonPath("results[2].found").isEqualTo(true);
+    }
+
+    @Test
+    @DisplayName("Reactive API - should update with If-Match and reject a stale version")
+    public void updateTest() {
+        var book = client.post().uri(BOOK_API)
+                .bodyValue(new CreateBookCommand("Clean Coder", "Robert C. Martin", TestBase.isbn(700_003)))
+                .exchange().expectBody(BookResponse.class).returnResult().getResponseBody();
+
+        client.put().uri(BOOK_API + "/{id}", book.getId()).header("If-Match", "\"0\"")
+                .bodyValue(new UpdateBookCommand("The Clean Coder", "Robert C. Martin")).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"1\"")
+                .expectBody().jsonPath("title").isEqualTo("The Clean Coder");
+        client.patch().uri(BOOK_API + "/{id}", book.getId()).header("If-Match", "\"0\"")
+                .bodyValue(new UpdateBookCommand("Stale", null)).exchange()
+                .expectStatus().isEqualTo(412);
+        client.delete().uri(BOOK_API + "/{id}", book.getId()).exchange().expectStatus().isNoContent();
+        client.delete().uri(BOOK_API + "/{id}", book.getId()).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Reactive API - should page, stream and export books written by either stack")
+    public void listAndStreamTest() {
+        var author = "Reactive Author";
+        var commands = new ArrayList<CreateBookCommand>();
+        for (int i = 0; i < 5; i++) commands.add(new CreateBookCommand("Book " + i, author, TestBase.isbn(700_100 + i)));
+        client.post().uri(BOOK_API + "/batch").bodyValue(commands.subList(0, 3)).exchange()
+                .expectStatus().isCreated()
+                .expectBody().jsonPath("created.length()").isEqualTo(3);
+        blockingService.saveAll(commands.subList(3, 5));
+
+        var first = client.get().uri(BOOK_API + "?author={author}&size=3", author).exchange()
+                .expectStatus().isOk()
+                .expectBody(PageBody.class).returnResult().getResponseBody();
+        Assertions.assertThat(first.items).hasSize(3);
+        var second = client.get().uri(BOOK_API + "?author={author}&size=3&cursor={cursor}", author, first.next).exchange()
+                .expectBody(PageBody.class).returnResult().getResponseBody();
+        Assertions.assertThat(second.items).hasSize(2);
+        Assertions.assertThat(second.next).isNull();
+
+        var streamed = client.get().uri(BOOK_API + "?author={author}", author).accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(BookResponse.class).getResponseBody().collectList().block();
+        Assertions.assertThat(streamed).extracting(BookResponse::getTitle)
+                .containsExactly("Book 0", "Book 1", "Book 2", "Book 3", "Book 4");
+        Assertions.assertThat(streamed).extracting(BookResponse::getId).doesNotHaveDuplicates();
+
+        var csv = client.get().uri(BOOK_API + "/export?format=CSV").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith("text/csv")
+                .expectBody(String.class).returnResult().getResponseBody();
+        Assertions.assertThat(csv).startsWith("id,title,author,isbn\n").contains(",Book 4,Reactive Author,");
+    }
+
+    static class PageBody {
+        public List<BookResponse> items;
+        public String next;
+    }
+}
@@ -0,0 +1,62 @@
+package com.workshopspring.libraryapi.exceptions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+public class ErrorResponsesTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ErrorResponses responses = new ErrorResponses(registry, new ObjectMapper());
+
+    @Test
+    @DisplayName("Errors - should splice the id into the not found body")
+    public void notFoundBodyTest() {
+        var response = responses.notFound(42L);
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        Assertions.assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        Assertions.assertThat(new String(response.getBody(), StandardCharsets.UTF_8))
+                .isEqualTo("{\"message\":\"Resource not found id: 42\",\"errors\":[]}");
+        Assertions.assertThat(new String(responses.notFound("a\"b").getBody(), StandardCharsets.UTF_8))
+                .isEqualTo("{\"message\":\"Resource not found id: a\\\"b\",\"errors\":[]}");
+    }
+
+    @Test
+    @DisplayName("Errors - should shape the prebuilt bodies with the configured mapper")
+    public void configuredMapperTest() throws Exception {
+        var mapper = new ObjectMapper().setPropertyNamingStrategy(PropertyNamingStrategies.UPPER_CAMEL_CASE);
+        var configured = new ErrorResponses(registry, mapper);
+
+        Assertions.assertThat(new String(configured.notFound(42L).getBody(), StandardCharsets.UTF_8))
+                .isEqualTo(mapper.writeValueAsString(new StandardError<>("Resource not found id: 42")));
+    }
+
+    @Test
+    @DisplayName("Errors - should reuse the response of a domain error and count every occurrence")
+    public void domainResponseReusedTest() {
+        var first = responses.domain(new DuplicatedISBN("Conflict", "Book"));
+        var second = responses.domain(new DuplicatedISBN("Conflict", "Book"));
+
+        Assertions.assertThat(second).isSameAs(first);
+        Assertions.assertThat(first.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        Assertions.assertThat(new String(first.getBody(), StandardCharsets.UTF_8))
+                .contains("\"message\":\"Conflict\"").contains("ISBN already registered!");
+        Assertions.assertThat(registry.get(ErrorResponses.ERRORS_METRIC)
+                .tag("exception", "DuplicatedISBN").tag("status", "422").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Errors - should build domain exceptions without a stack trace")
+    public void stacklessExceptionTest() {
+        Assertions.assertThat(new DuplicatedISBN("Conflict", "Book").getStackTrace()).isEmpty();
+        Assertions.assertThat(new ResourceNotFoundException(7L).getStackTrace()).isEmpty();
+    }
+}
@@ -0,0 +1,104 @@
+package com.workshopspring.libraryapi.execution;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ConcurrencyLimitFilterTest {
+
+    @Test
+    @DisplayName("Execution - should shed a request over the limit with 503 and admit it once a slot frees up")
+    public void shedsOverLimitTest() throws Exception {
+        var filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(50), new ObjectMapper());
+        var entered = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var blocking = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                entered.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        var inFlight = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), blocking);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Assertions.assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        var rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), rejected, new MockFilterChain());
+
+        Assertions.assertThat(rejected.getStatus()).isEqualTo(503);
+        Assertions.assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        Assertions.assertThat(rejected.getContentAsString()).contains("Too many concurrent requests");
+
+        release.countDown();
+        inFlight.get(5, TimeUnit.SECONDS);
+        var admitted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), admitted, new MockFilterChain());
+
+        Assertions.assertThat(admitted.getStatus()).isEqualTo(200);
+        Assertions.assertThat(filter.available()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Execution - should hold the permit of an async request until it completes")
+    public void asyncRequestTest() throws Exception {
+        var filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(50), new ObjectMapper());
+        var request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        var async = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                request.startAsync();
+            }
+        });
+
+        filter.doFilter(request, new MockHttpServletResponse(), async);
+
+        Assertions.assertThat(filter.available()).isZero();
+        var rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), rejected, new MockFilterChain());
+        Assertions.assertThat(rejected.getStatus()).isEqualTo(503);
+
+        request.getAsyncContext().complete();
+        Assertions.assertThat(filter.available()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Execution - should run tasks on virtual threads when the runtime has them")
+    public void virtualThreadsTest() throws Exception {
+        if (!VirtualThreads.isSupported()) {
+            Assertions.assertThatThrownBy(() -> VirtualThreads.newThreadPerTaskExecutor("test-"))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("Java 21");
+            return;
+        }
+        var executor = VirtualThreads.newThreadPerTaskExecutor("test-");
+        try {
+            var name = executor.submit(() -> Thread.currentThread().toString()).get(5, TimeUnit.SECONDS);
+            Assertions.assertThat(name).startsWith("VirtualThread").contains("test-0");
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.workshopspring.libraryapi.execution;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("test")
+@EnabledIf("com.workshopspring.libraryapi.execution.VirtualThreads#isSupported")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "library.execution.mode=virtual")
+public class VirtualExecutionTest {
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    @DisplayName("Execution - should serve requests from virtual threads in virtual mode")
+    public void virtualModeTest() {
+        var tomcat = ((TomcatWebServer) context.getWebServer()).getTomcat();
+        var executor = tomcat.getConnector().getProtocolHandler().getExecutor();
+
+        Assertions.assertThat(executor.getClass().getName()).contains("ThreadPerTaskExecutor");
+        Assertions.assertThat(restTemplate.getForEntity("/api/books", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+}
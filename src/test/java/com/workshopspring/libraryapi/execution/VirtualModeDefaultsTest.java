@@ -0,0 +1,57 @@
+package com.workshopspring.libraryapi.execution;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.mock.env.MockEnvironment;
+
+public class VirtualModeDefaultsTest {
+
+    private final VirtualModeDefaults defaults = new VirtualModeDefaults();
+
+    @Test
+    @DisplayName("Execution - should follow the queue timeout for connections in virtual mode only")
+    public void connectionTimeoutTest() {
+        var platform = new MockEnvironment();
+        defaults.postProcessEnvironment(platform, new SpringApplication());
+        Assertions.assertThat(platform.getProperty(VirtualModeDefaults.CONNECTION_TIMEOUT)).isNull();
+
+        var virtual = new MockEnvironment()
+                .withProperty("library.execution.mode", "virtual")
+                .withProperty("library.execution.queue-timeout", "1500ms");
+        defaults.postProcessEnvironment(virtual, new SpringApplication());
+        Assertions.assertThat(virtual.getProperty(VirtualModeDefaults.CONNECTION_TIMEOUT)).isEqualTo("1500");
+
+        var explicit = new MockEnvironment()
+                .withProperty("library.execution.mode", "virtual")
+                .withProperty(VirtualModeDefaults.CONNECTION_TIMEOUT, "30000");
+        defaults.postProcessEnvironment(explicit, new SpringApplication());
+        Assertions.assertThat(explicit.getProperty(VirtualModeDefaults.CONNECTION_TIMEOUT)).isEqualTo("30000");
+    }
+
+    @Test
+    @DisplayName("Execution - should size the concurrency limit to the connection pool unless it is set")
+    public void maxConcurrentRequestsTest() {
+        var platform = new MockEnvironment();
+        defaults.postProcessEnvironment(platform, new SpringApplication());
+        Assertions.assertThat(platform.getProperty(VirtualModeDefaults.MAX_CONCURRENT_REQUESTS)).isNull();
+
+        var hikariDefault = new MockEnvironment().withProperty("library.execution.mode", "virtual");
+        defaults.postProcessEnvironment(hikariDefault, new SpringApplication());
+        Assertions.assertThat(hikariDefault.getProperty(VirtualModeDefaults.MAX_CONCURRENT_REQUESTS)).isEqualTo("40");
+
+        var resized = new MockEnvironment()
+                .withProperty("library.execution.mode", "virtual")
+                .withProperty(VirtualModeDefaults.MAXIMUM_POOL_SIZE, "50");
+        defaults.postProcessEnvironment(resized, new SpringApplication());
+        Assertions.assertThat(resized.getProperty(VirtualModeDefaults.MAX_CONCURRENT_REQUESTS)).isEqualTo("200");
+
+        var explicit = new MockEnvironment()
+                .withProperty("library.execution.mode", "virtual")
+                .withProperty(VirtualModeDefaults.MAXIMUM_POOL_SIZE, "50")
+                .withProperty(VirtualModeDefaults.MAX_CONCURRENT_REQUESTS, "120");
+        defaults.postProcessEnvironment(explicit, new SpringApplication());
+        Assertions.assertThat(explicit.getProperty(VirtualModeDefaults.MAX_CONCURRENT_REQUESTS)).isEqualTo("120");
+    }
+}
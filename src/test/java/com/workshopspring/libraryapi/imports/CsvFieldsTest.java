@@ -0,0 +1,18 @@
+package com.workshopspring.libraryapi.imports;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CsvFieldsTest {
+
+    @Test
+    @DisplayName("Export - should quote fields holding a separator, quote or any line break")
+    public void quoteTest() {
+        Assertions.assertThat(CsvFields.quote("Clean Code")).isEqualTo("Clean Code");
+        Assertions.assertThat(CsvFields.quote("Code, Clean")).isEqualTo("\"Code, Clean\"");
+        Assertions.assertThat(CsvFields.quote("\"Clean\" Code")).isEqualTo("\"\"\"Clean\"\" Code\"");
+        Assertions.assertThat(CsvFields.quote("Clean\nCode")).isEqualTo("\"Clean\nCode\"");
+        Assertions.assertThat(CsvFields.quote("Clean\rCode")).isEqualTo("\"Clean\rCode\"");
+    }
+}
@@ -0,0 +1,37 @@
+package com.workshopspring.libraryapi.isbn;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class IsbnTest {
+
+    @Test
+    @DisplayName("ISBN - should canonicalise isbn-13 regardless of separators")
+    public void parseIsbn13Test() {
+        Assertions.assertThat(Isbn.parse("978-0-13-468599-1")).isEqualTo(9780134685991L);
+        Assertions.assertThat(Isbn.parse("9780134685991")).isEqualTo(9780134685991L);
+        Assertions.assertThat(Isbn.parse("979 10 90636 07 1")).isEqualTo(9791090636071L);
+    }
+
+    @Test
+    @DisplayName("ISBN - should convert isbn-10 to its isbn-13 form")
+    public void parseIsbn10Test() {
+        Assertions.assertThat(Isbn.parse("0-13-235088-2")).isEqualTo(9780132350884L);
+        Assertions.assertThat(Isbn.parse("080442957X")).isEqualTo(9780804429573L);
+        Assertions.assertThat(Isbn.parse("080442957x")).isEqualTo(Isbn.parse("978-0-8044-2957-3"));
+    }
+
+    @Test
+    @DisplayName("ISBN - should reject wrong check digits, lengths and characters")
+    public void parseInvalidTest() {
+        Assertions.assertThat(Isbn.parse("9780134685990")).isEqualTo(Isbn.INVALID);
+        Assertions.assertThat(Isbn.parse("0132350883")).isEqualTo(Isbn.INVALID);
+        Assertions.assertThat(Isbn.parse("9770134685991")).isEqualTo(Isbn.INVALID);
+        Assertions.assertThat(Isbn.parse("97801346859912")).isEqualTo(Isbn.INVALID);
+        Assertions.assertThat(Isbn.parse("08044295X7")).isEqualTo(Isbn.INVALID);
+        Assertions.assertThat(Isbn.parse("978013468599a")).isEqualTo(Isbn.INVALID);
+        Assertions.assertThat(Isbn.parse("")).isEqualTo(Isbn.INVALID);
+        Assertions.assertThat(Isbn.parse(null)).isEqualTo(Isbn.INVALID);
+    }
+}
@@ -0,0 +1,133 @@
+package com.workshopspring.libraryapi.loading;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.config.BookLoaderProperties;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.repositories.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+public class BookLoaderTest {
+
+    private final BookRepository repository = Mockito.mock(BookRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Loader - should answer concurrent lookups of one id with a single query")
+    public void coalescesSameIdTest() throws Exception {
+        var loader = loader(Duration.ZERO, 100);
+        var release = new CountDownLatch(1);
+        Mockito.when(repository.findAllById(List.of(1L))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(book(1L));
+        });
+
+        var lookups = new ArrayList<CompletableFuture<Optional<Book>>>();
+        for (int i = 0; i < 8; i++) lookups.add(CompletableFuture.supplyAsync(() -> loader.load(1L)));
+        while (registry.counter("library.book.loader.coalesced").count() < 7) Thread.sleep(1);
+        release.countDown();
+
+        for (var lookup : lookups) Assertions.assertThat(lookup.get(5, TimeUnit.SECONDS)).hasValueSatisfying(
+                book -> Assertions.assertThat(book.getId()).isEqualTo(1L));
+        Mockito.verify(repository, Mockito.times(1)).findAllById(Mockito.any());
+        Assertions.assertThat(loader.coalescingRatio()).isEqualTo(8.0);
+    }
+
+    @Test
+    @DisplayName("Loader - should fetch distinct ids arriving within the window with one query")
+    @SuppressWarnings("unchecked")
+    public void batchesDistinctIdsTest() throws Exception {
+        var loader = loader(Duration.ofMillis(500), 100);
+        Mockito.when(repository.findAllById(Mockito.any())).thenAnswer(invocation -> {
+            var books = new ArrayList<Book>();
+            for (Long id : (Iterable<Long>) invocation.getArgument(0)) if (id != 4L) books.add(book(id));
+            return books;
+        });
+
+        var start = new CyclicBarrier(4);
+        var lookups = new ArrayList<CompletableFuture<Optional<Book>>>();
+        for (long id = 1; id <= 4; id++) {
+            var bookId = id;
+            lookups.add(CompletableFuture.supplyAsync(() -> {
+                await(start);
+                return loader.load(bookId);
+            }));
+        }
+
+        for (int i = 0; i < 3; i++) Assertions.assertThat(lookups.get(i).get(5, TimeUnit.SECONDS)).isPresent();
+        Assertions.assertThat(lookups.get(3).get(5, TimeUnit.SECONDS)).isEmpty();
+        ArgumentCaptor<Iterable<Long>> ids = ArgumentCaptor.forClass(Iterable.class);
+        Mockito.verify(repository, Mockito.times(1)).findAllById(ids.capture());
+        Assertions.assertThat(ids.getValue()).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    @DisplayName("Loader - should dispatch a full batch without waiting out the window")
+    public void dispatchesFullBatchTest() throws Exception {
+        var loader = loader(Duration.ofMinutes(1), 2);
+        Mockito.when(repository.findAllById(Mockito.any())).thenReturn(List.of(book(1L), book(2L)));
+
+        var first = CompletableFuture.supplyAsync(() -> loader.load(1L));
+        var second = CompletableFuture.supplyAsync(() -> loader.load(2L));
+
+        Assertions.assertThat(first.get(5, TimeUnit.SECONDS)).isPresent();
+        Assertions.assertThat(second.get(5, TimeUnit.SECONDS)).isPresent();
+    }
+
+    @Test
+    @DisplayName("Loader - should fail every waiter of a failed query and load again afterwards")
+    public void propagatesFailureTest() {
+        var loader = loader(Duration.ZERO, 100);
+        Mockito.when(repository.findAllById(List.of(1L)))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(List.of(book(1L)));
+
+        Assertions.assertThatThrownBy(() -> loader.load(1L)).isInstanceOf(QueryTimeoutException.class);
+        Assertions.assertThat(loader.load(1L)).isPresent();
+    }
+
+    @Test
+    @DisplayName("Loader - should go straight to findById when disabled")
+    public void disabledTest() {
+        var properties = new BookLoaderProperties();
+        properties.setEnabled(false);
+        var loader = new BookLoader(repository, properties, registry);
+        Mockito.when(repository.findById(1L)).thenReturn(Optional.of(book(1L)));
+
+        Assertions.assertThat(loader.load(1L)).isPresent();
+        Mockito.verify(repository, Mockito.never()).findAllById(Mockito.any());
+    }
+
+    private BookLoader loader(Duration window, int maxBatchSize) {
+        var properties = new BookLoaderProperties();
+        properties.setBatchWindow(window);
+        properties.setMaxBatchSize(maxBatchSize);
+        return new BookLoader(repository, properties, registry);
+    }
+
+    private static Book book(Long id) {
+        return new Book(id, "Title " + id, "Author", TestBase.isbn(id));
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
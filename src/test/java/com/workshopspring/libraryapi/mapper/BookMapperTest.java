@@ -0,0 +1,95 @@
+package com.workshopspring.libraryapi.mapper;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.mappers.BookMapper;
+import com.workshopspring.libraryapi.mappers.impl.BookMapperImpl;
+import com.workshopspring.libraryapi.responses.BookResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class BookMapperTest extends TestBase {
+
+    /**
+     * Book fields a create command does not carry: assigned by the database or derived from another field.
+     */
+    private static final Set<String> NOT_FROM_COMMAND = Set.of("id", "version", "isbnKey");
+
+    /**
+     * Book fields deliberately kept out of the response.
+     */
+    private static final Set<String> NOT_IN_RESPONSE = Set.of("isbnKey");
+
+    private final BookMapper mapper = new BookMapperImpl();
+
+    @Test
+    @DisplayName("Mapper - should map every book field from the create command")
+    public void toEntityMapsEveryFieldTest() {
+        var command = this.makeCreateBookCommand();
+
+        var book = mapper.toEntity(command);
+
+        for (Field field : fieldsOf(Book.class)) {
+            if (NOT_FROM_COMMAND.contains(field.getName())) continue;
+            Assertions.assertThat(ReflectionUtils.getField(field, book))
+                    .as("Book.%s is not mapped from CreateBookCommand", field.getName())
+                    .isNotNull()
+                    .isEqualTo(ReflectionUtils.getField(commandField(field.getName()), command));
+        }
+        Assertions.assertThat(book.getIsbnKey()).isEqualTo(this.makeBook().getIsbnKey());
+    }
+
+    @Test
+    @DisplayName("Mapper - should copy every book field into the response")
+    public void toResponseMapsEveryFieldTest() {
+        var book = this.makeBook();
+        book.setVersion(3L);
+
+        var response = mapper.toResponse(book);
+
+        for (Field field : fieldsOf(Book.class)) {
+            if (NOT_IN_RESPONSE.contains(field.getName())) continue;
+            var value = ReflectionUtils.getField(field, book);
+            Assertions.assertThat(value).as("fixture does not set Book.%s", field.getName()).isNotNull();
+
+            var responseField = ReflectionUtils.findField(BookResponse.class, field.getName());
+            Assertions.assertThat(responseField).as("BookResponse has no %s field", field.getName()).isNotNull();
+            ReflectionUtils.makeAccessible(responseField);
+            Assertions.assertThat(ReflectionUtils.getField(responseField, response))
+                    .as("Book.%s is not mapped to BookResponse", field.getName())
+                    .isEqualTo(value);
+        }
+    }
+
+    @Test
+    @DisplayName("Mapper - should map null to null")
+    public void nullTest() {
+        Assertions.assertThat(mapper.toEntity(null)).isNull();
+        Assertions.assertThat(mapper.toResponse(null)).isNull();
+    }
+
+    private static Field commandField(String name) {
+        var field = ReflectionUtils.findField(CreateBookCommand.class, name);
+        Assertions.assertThat(field).as("CreateBookCommand has no %s field", name).isNotNull();
+        ReflectionUtils.makeAccessible(field);
+        return field;
+    }
+
+    private static List<Field> fieldsOf(Class<?> type) {
+        var fields = new ArrayList<Field>();
+        ReflectionUtils.doWithFields(type, field -> {
+            ReflectionUtils.makeAccessible(field);
+            fields.add(field);
+        }, field -> !Modifier.isStatic(field.getModifiers()));
+        return fields;
+    }
+}
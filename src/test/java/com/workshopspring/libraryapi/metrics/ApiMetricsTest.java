@@ -0,0 +1,50 @@
+package com.workshopspring.libraryapi.metrics;
+
+import com.workshopspring.libraryapi.TestBase;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@ActiveProfiles("test")
+public class ApiMetricsTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    @DisplayName("Metrics - should expose endpoint, service, repository, pool and error metrics to Prometheus")
+    public void prometheusTest() throws Exception {
+        var json = "{\"title\":\"Metrics\",\"author\":\"Author\",\"isbn\":\"" + TestBase.isbn(730_001) + "\"}";
+        mvc.perform(MockMvcRequestBuilders.post("/api/books").contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(MockMvcResultMatchers.status().isCreated());
+        mvc.perform(MockMvcRequestBuilders.post("/api/books").contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+        mvc.perform(MockMvcRequestBuilders.get("/api/books/isbn/" + TestBase.isbn(730_999)))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        var scrape = mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        Assertions.assertThat(scrape)
+                .containsPattern("http_server_requests_seconds_bucket\\{.*uri=\"/api/books\".*le=")
+                .containsPattern("library_service_seconds_count\\{class=\"BookServiceImpl\",exception=\"none\",method=\"save\",\\} 1\\.0")
+                .containsPattern("library_service_seconds_count\\{class=\"BookServiceImpl\",exception=\"DuplicatedISBN\",method=\"save\",\\} 1\\.0")
+                .containsPattern("spring_data_repository_invocations_seconds_count\\{.*method=\"saveAndFlush\".*repository=\"BookRepository\"")
+                .contains("hikaricp_connections_pending")
+                .containsPattern("library_api_errors_total\\{exception=\"DuplicatedISBN\",status=\"422\",\\} 1\\.0")
+                .containsPattern("library_api_errors_total\\{exception=\"ResourceNotFoundException\",status=\"404\",\\} 1\\.0");
+    }
+}
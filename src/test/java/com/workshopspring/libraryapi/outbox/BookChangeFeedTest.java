@@ -0,0 +1,144 @@
+package com.workshopspring.libraryapi.outbox;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.commands.UpdateBookCommand;
+import com.workshopspring.libraryapi.events.BookChangesPublishedEvent;
+import com.workshopspring.libraryapi.exceptions.DuplicatedISBN;
+import com.workshopspring.libraryapi.repositories.BookChangeRepository;
+import com.workshopspring.libraryapi.responses.BookChangeResponse;
+import com.workshopspring.libraryapi.services.BookService;
+import org.assertj.core.api.Assertions;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class BookChangeFeedTest {
+
+    @TempDir
+    static Path directory;
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    BookService service;
+
+    @Autowired
+    BookChangeRelay relay;
+
+    @Autowired
+    BookChangeRepository changeRepository;
+
+    @Autowired
+    Received received;
+
+    @DynamicPropertySource
+    static void outboxFile(DynamicPropertyRegistry registry) {
+        registry.add("library.outbox.file", () -> directory.resolve("changes.ndjson").toString());
+    }
+
+    @Test
+    @DisplayName("Outbox - should feed saves, updates and deletes after the cursor in commit order")
+    public void changesSinceCursorTest() throws Exception {
+        relay.drain();
+        var start = mvc.perform(MockMvcRequestBuilders.get("/api/books/changes").param("size", "1000"))
+                .andReturn().getResponse().getContentAsString().replaceAll(".*\"next\":\"([^\"]+)\".*", "$1");
+
+        var book = service.save(new CreateBookCommand("Outbox", "Author", TestBase.isbn(750_001)));
+        service.update(book.getId(), new UpdateBookCommand("Outbox 2", "Author"));
+        service.delete(book.getId());
+        relay.drain();
+
+        var next = mvc.perform(MockMvcRequestBuilders.get("/api/books/changes").param("since", start))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("items", Matchers.hasSize(3)))
+                .andExpect(MockMvcResultMatchers.jsonPath("items[*].bookId",
+                        Matchers.everyItem(Matchers.is(book.getId().intValue()))))
+                .andExpect(MockMvcResultMatchers.jsonPath("items[*].type",
+                        Matchers.contains("SAVED", "SAVED", "DELETED")))
+                .andExpect(MockMvcResultMatchers.jsonPath("items[0].book.title").value("Outbox"))
+                .andExpect(MockMvcResultMatchers.jsonPath("items[1].book.title").value("Outbox 2"))
+                .andExpect(MockMvcResultMatchers.jsonPath("items[2].book").doesNotExist())
+                .andReturn().getResponse().getContentAsString().replaceAll(".*\"next\":\"([^\"]+)\".*", "$1");
+
+        mvc.perform(MockMvcRequestBuilders.get("/api/books/changes").param("since", next))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("items", Matchers.hasSize(0)))
+                .andExpect(MockMvcResultMatchers.jsonPath("next").value(next));
+    }
+
+    @Test
+    @DisplayName("Outbox - should not record a change whose write rolled back")
+    public void rolledBackWriteTest() {
+        service.save(new CreateBookCommand("Outbox", "Author", TestBase.isbn(750_002)));
+        var before = changeRepository.count();
+
+        var exception = Assertions.catchThrowable(
+                () -> service.save(new CreateBookCommand("Outbox", "Author", TestBase.isbn(750_002))));
+
+        Assertions.assertThat(exception).isInstanceOf(DuplicatedISBN.class);
+        Assertions.assertThat(changeRepository.count()).isEqualTo(before);
+    }
+
+    @Test
+    @DisplayName("Outbox - should hand relayed batches to the in-process listener and the NDJSON file")
+    public void sinksTest() throws Exception {
+        var first = service.save(new CreateBookCommand("Outbox", "Author", TestBase.isbn(750_003)));
+        var second = service.save(new CreateBookCommand("Outbox", "Author", TestBase.isbn(750_004)));
+        relay.drain();
+
+        var delivered = received.events.stream().flatMap(event -> event.getChanges().stream())
+                .map(BookChangeResponse::getBookId).collect(Collectors.toList());
+        Assertions.assertThat(delivered).contains(first.getId(), second.getId());
+        Assertions.assertThat(received.events).allSatisfy(event -> Assertions.assertThat(event.getChanges())
+                .isSortedAccordingTo((a, b) -> Long.compare(a.getPosition(), b.getPosition())));
+
+        var lines = Files.readAllLines(directory.resolve("changes.ndjson"));
+        Assertions.assertThat(lines).anySatisfy(line -> Assertions.assertThat(line)
+                .startsWith("{\"position\":").contains("\"bookId\":" + first.getId() + ","));
+        Assertions.assertThat(lines).anySatisfy(line -> Assertions.assertThat(line)
+                .contains("\"bookId\":" + second.getId() + ","));
+    }
+
+    static class Received {
+
+        final List<BookChangesPublishedEvent> events = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        public void on(BookChangesPublishedEvent event) {
+            events.add(event);
+        }
+    }
+
+    @TestConfiguration
+    static class ReceivedConfig {
+
+        @Bean
+        Received received() {
+            return new Received();
+        }
+    }
+}
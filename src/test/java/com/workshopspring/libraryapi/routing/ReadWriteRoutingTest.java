@@ -0,0 +1,142 @@
+package com.workshopspring.libraryapi.routing;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.exceptions.ResourceNotFoundException;
+import com.workshopspring.libraryapi.isbn.Isbn;
+import com.workshopspring.libraryapi.services.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import javax.servlet.http.Cookie;
+import javax.sql.DataSource;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+@SpringBootTest(properties = {
+        "library.second-level-cache.enabled=false",
+        "library.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;IFEXISTS=TRUE",
+        "library.datasource.replica.connection-timeout=250ms",
+        "library.datasource.replica.health-check-interval=1h"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ReadWriteRoutingTest {
+
+    private static final String REPLICA = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    BookService service;
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @BeforeAll
+    static void createReplica() throws SQLException {
+        execute("create table if not exists book (id bigint not null, author varchar(255) not null, "
+                + "isbn varchar(255) not null, isbn_key bigint not null, title varchar(255) not null, "
+                + "version bigint, primary key (id))");
+    }
+
+    @Test
+    @DisplayName("Routing - should serve read-only lookups from the replica and writes from the primary")
+    public void readsFromReplicaTest() throws SQLException {
+        replicate(770_001);
+        var written = service.save(new CreateBookCommand("Primary", "Author", TestBase.isbn(770_002)));
+
+        Assertions.assertThat(service.findByIsbn(TestBase.isbn(770_001)).getTitle()).isEqualTo("Replica");
+        Assertions.assertThatThrownBy(() -> service.findByIsbn(written.getIsbn()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        Assertions.assertThat(registry.get("library.datasource.routes").tag("target", "replica").counter().count())
+                .isPositive();
+    }
+
+    @Test
+    @DisplayName("Routing - should read a client's own write from the primary until its stickiness expires")
+    public void readYourWritesTest() throws Exception {
+        var json = "{\"title\":\"Sticky\",\"author\":\"Author\",\"isbn\":\"" + TestBase.isbn(770_003) + "\"}";
+        var cookie = mvc.perform(MockMvcRequestBuilders.post("/api/books").contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.cookie().exists(ReadYourWritesFilter.COOKIE))
+                .andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+
+        mvc.perform(MockMvcRequestBuilders.get("/api/books/isbn/" + TestBase.isbn(770_003)).cookie(cookie))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        mvc.perform(MockMvcRequestBuilders.get("/api/books/isbn/" + TestBase.isbn(770_003)))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+        var expired = new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(System.currentTimeMillis() - 1));
+        mvc.perform(MockMvcRequestBuilders.get("/api/books/isbn/" + TestBase.isbn(770_003)).cookie(expired))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Routing - should not pin clients whose request wrote nothing")
+    public void noWriteNoPinTest() throws Exception {
+        var json = "{\"title\":\"Sticky\",\"author\":\"Author\",\"isbn\":\"" + TestBase.isbn(770_005) + "\"}";
+        mvc.perform(MockMvcRequestBuilders.post("/api/books").contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(MockMvcResultMatchers.status().isCreated());
+
+        mvc.perform(MockMvcRequestBuilders.post("/api/books").contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity())
+                .andExpect(MockMvcResultMatchers.cookie().doesNotExist(ReadYourWritesFilter.COOKIE));
+        mvc.perform(MockMvcRequestBuilders.post("/api/books/lookup").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"isbns\":[\"" + TestBase.isbn(770_005) + "\"]}"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.cookie().doesNotExist(ReadYourWritesFilter.COOKIE));
+        mvc.perform(MockMvcRequestBuilders.delete("/api/books/999999999"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound())
+                .andExpect(MockMvcResultMatchers.cookie().doesNotExist(ReadYourWritesFilter.COOKIE));
+    }
+
+    @Test
+    @DisplayName("Routing - should fall back to the primary while the replica is down and return once it is back")
+    public void replicaFallbackTest() throws Exception {
+        var routing = dataSource.unwrap(ReadWriteRoutingDataSource.class);
+        var book = service.save(new CreateBookCommand("Primary", "Author", TestBase.isbn(770_004)));
+        execute("shutdown");
+        // past Hikari's 500ms alive-bypass window, so the replica pool validates its idle connections
+        Thread.sleep(600);
+        try {
+            Assertions.assertThat(service.findByIsbn(book.getIsbn()).getId()).isEqualTo(book.getId());
+            Assertions.assertThat(routing.isReplicaUp()).isFalse();
+            Assertions.assertThat(registry.get("library.datasource.routes").tag("target", "fallback").counter().count())
+                    .isPositive();
+        } finally {
+            createReplica();
+        }
+
+        routing.checkReplica();
+        Assertions.assertThat(routing.isReplicaUp()).isTrue();
+        Assertions.assertThatThrownBy(() -> service.findByIsbn(book.getIsbn()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private static void replicate(long n) throws SQLException {
+        var isbn = TestBase.isbn(n);
+        execute("insert into book (id, author, isbn, isbn_key, title, version) values (" + (10_000_000 + n)
+                + ", 'Author', '" + isbn + "', " + Isbn.parse(isbn) + ", 'Replica', 0)");
+    }
+
+    private static void execute(String sql) throws SQLException {
+        try (var connection = DriverManager.getConnection(REPLICA, "sa", "");
+             var statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
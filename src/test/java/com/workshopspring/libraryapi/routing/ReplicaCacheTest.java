@@ -0,0 +1,94 @@
+package com.workshopspring.libraryapi.routing;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.commands.UpdateBookCommand;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.services.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+@SpringBootTest(properties = {
+        "library.datasource.replica.url=jdbc:h2:mem:lagging-replica;DB_CLOSE_DELAY=-1;IFEXISTS=TRUE",
+        "library.datasource.replica.health-check-interval=1h"})
+@ActiveProfiles("test")
+public class ReplicaCacheTest {
+
+    private static final String REPLICA = "jdbc:h2:mem:lagging-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    BookService service;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @BeforeAll
+    static void createReplica() throws SQLException {
+        execute("create table if not exists book (id bigint not null, author varchar(255) not null, "
+                + "isbn varchar(255) not null, isbn_key bigint not null, title varchar(255) not null, "
+                + "version bigint, primary key (id))");
+    }
+
+    @Test
+    @DisplayName("Routing - should read books from the replica without caching what a lagging replica returns")
+    public void laggingReplicaTest() throws SQLException {
+        var book = service.save(new CreateBookCommand("Old", "Author", TestBase.isbn(770_010)));
+        replicate(book);
+        service.update(book.getId(), new UpdateBookCommand("New", "Author"));
+
+        var replicaRoutes = replicaRoutes();
+        Assertions.assertThat(service.findById(book.getId()).getTitle()).isEqualTo("Old");
+        Assertions.assertThat(replicaRoutes()).isGreaterThan(replicaRoutes);
+        Assertions.assertThat(service.findByIsbn(book.getIsbn()).getTitle()).isEqualTo("Old");
+        Assertions.assertThat(service.findVersion(book.getId())).isEqualTo(0L);
+
+        execute("update book set title = 'New', version = 1 where id = " + book.getId());
+
+        Assertions.assertThat(service.findById(book.getId()).getTitle()).isEqualTo("New");
+        Assertions.assertThat(service.findByIsbn(book.getIsbn()).getTitle()).isEqualTo("New");
+        Assertions.assertThat(service.findVersion(book.getId())).isEqualTo(1L);
+        Assertions.assertThat(service.findOne(book.getId())).hasValueSatisfying(
+                cached -> Assertions.assertThat(cached.getTitle()).isEqualTo("New"));
+    }
+
+    @Test
+    @DisplayName("Routing - should read a pinned client's book from the primary")
+    public void pinnedReadTest() throws SQLException {
+        var book = service.save(new CreateBookCommand("Old", "Author", TestBase.isbn(770_011)));
+        replicate(book);
+        service.update(book.getId(), new UpdateBookCommand("New", "Author"));
+
+        ReadYourWrites.pin();
+        try {
+            Assertions.assertThat(service.findById(book.getId()).getTitle()).isEqualTo("New");
+        } finally {
+            ReadYourWrites.release();
+        }
+    }
+
+    private double replicaRoutes() {
+        return registry.get("library.datasource.routes").tag("target", "replica").counter().count();
+    }
+
+    private static void replicate(Book book) throws SQLException {
+        execute("insert into book (id, author, isbn, isbn_key, title, version) values (" + book.getId() + ", '"
+                + book.getAuthor() + "', '" + book.getIsbn() + "', " + book.getIsbnKey() + ", '" + book.getTitle()
+                + "', " + book.getVersion() + ")");
+    }
+
+    private static void execute(String sql) throws SQLException {
+        try (var connection = DriverManager.getConnection(REPLICA, "sa", "");
+             var statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.workshopspring.libraryapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.config.CachingConfig;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.exceptions.ResourceNotFoundException;
+import com.workshopspring.libraryapi.repositories.BookRepository;
+import com.workshopspring.libraryapi.services.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@SpringBootTest(properties = {"library.book-loader.batch-window=200ms", "library.outbox.poll-interval=1h"})
+@ActiveProfiles("test")
+public class BookCacheTest {
+
+    @Autowired
+    BookService service;
+
+    @Autowired
+    BookRepository repository;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    MeterRegistry registry;
+
+    Cache<Object, Object> cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        cache = (Cache<Object, Object>) cacheManager.getCache(CachingConfig.BOOKS).getNativeCache();
+        cache.invalidateAll();
+    }
+
+    @Test
+    @DisplayName("Cache - should serve repeated reads from the cache")
+    public void cacheHitTest() {
+        var book = repository.save(new Book("Clean Code", "Robert C. Martin", TestBase.isbn(200_001)));
+        var before = cache.stats();
+
+        service.findById(book.getId());
+        service.findById(book.getId());
+
+        var stats = cache.stats().minus(before);
+        Assertions.assertThat(stats.missCount()).isEqualTo(1);
+        Assertions.assertThat(stats.hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Cache - should evict a deleted book")
+    public void cacheEvictOnDeleteTest() {
+        var book = repository.save(new Book("Refactoring", "Martin Fowler", TestBase.isbn(200_002)));
+        service.findById(book.getId());
+
+        service.delete(book.getId());
+
+        Assertions.assertThat(cache.getIfPresent(book.getId())).isNull();
+        Assertions.assertThatThrownBy(() -> service.findById(book.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Cache - should load a hot book once for concurrent misses")
+    public void cacheStampedeTest() throws Exception {
+        var book = repository.save(new Book("Release It!", "Michael Nygard", TestBase.isbn(200_003)));
+        var callers = 16;
+        var executor = Executors.newFixedThreadPool(callers);
+        var start = new CountDownLatch(1);
+        var queries = registry.counter("library.book.loader.queries").count();
+        try {
+            var reads = new ArrayList<CompletableFuture<Book>>();
+            for (int i = 0; i < callers; i++) {
+                reads.add(CompletableFuture.supplyAsync(() -> {
+                    await(start);
+                    return service.findById(book.getId());
+                }, executor));
+            }
+            start.countDown();
+            for (var read : reads) Assertions.assertThat(read.get().getIsbn()).isEqualTo(TestBase.isbn(200_003));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertThat(registry.counter("library.book.loader.queries").count() - queries).isEqualTo(1);
+        Assertions.assertThat(cache.getIfPresent(book.getId())).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Cache - should hold one pooled connection for concurrent misses collapsed into one query")
+    public void coalescedMissesConnectionTest() throws Exception {
+        var ids = new ArrayList<Long>();
+        for (int i = 0; i < 8; i++) {
+            ids.add(repository.save(new Book("Book " + i, "Author", TestBase.isbn(200_010 + i))).getId());
+        }
+        var active = registry.get("hikaricp.connections.active").gauge();
+        var acquired = registry.get("hikaricp.connections.acquire").timer().count();
+        var executor = Executors.newFixedThreadPool(ids.size() + 1);
+        var start = new CountDownLatch(1);
+        var done = new AtomicBoolean();
+        try {
+            var peak = CompletableFuture.supplyAsync(() -> {
+                var max = 0d;
+                while (!done.get()) max = Math.max(max, active.value());
+                return max;
+            }, executor);
+            var reads = new ArrayList<CompletableFuture<Book>>();
+            for (var id : ids) {
+                reads.add(CompletableFuture.supplyAsync(() -> {
+                    await(start);
+                    return service.findById(id);
+                }, executor));
+            }
+            start.countDown();
+            for (var read : reads) Assertions.assertThat(read.get().getAuthor()).isEqualTo("Author");
+            done.set(true);
+
+            Assertions.assertThat(registry.get("hikaricp.connections.acquire").timer().count() - acquired).isEqualTo(1);
+            Assertions.assertThat(peak.get()).isLessThanOrEqualTo(1d);
+        } finally {
+            done.set(true);
+            executor.shutdownNow();
+        }
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
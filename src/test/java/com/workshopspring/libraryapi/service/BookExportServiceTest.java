@@ -0,0 +1,114 @@
+package com.workshopspring.libraryapi.service;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.imports.CatalogueFormat;
+import com.workshopspring.libraryapi.repositories.BookRepository;
+import com.workshopspring.libraryapi.services.BookExportService;
+import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookExportServiceTest {
+
+    static int BOOKS = 5_000;
+
+    @Autowired
+    BookExportService service;
+
+    @Autowired
+    BookRepository repository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @BeforeEach
+    public void setUp() {
+        repository.deleteAllInBatch();
+        var books = new ArrayList<Book>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) books.add(new Book("Title " + i, "Author, " + i, TestBase.isbn(100_000 + i)));
+        repository.insertAll(books);
+    }
+
+    @Test
+    @DisplayName("Export - should stream every book as ndjson")
+    public void exportNdjsonTest() throws Exception {
+        var output = new ByteArrayOutputStream();
+
+        var rows = service.export(output, CatalogueFormat.NDJSON);
+
+        var lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        Assertions.assertThat(rows).isEqualTo(BOOKS);
+        Assertions.assertThat(lines).hasSize(BOOKS);
+        Assertions.assertThat(lines[0]).contains("\"isbn\":\"" + TestBase.isbn(100_000) + "\"");
+    }
+
+    @Test
+    @DisplayName("Export - should quote csv fields")
+    public void exportCsvTest() throws Exception {
+        var output = new ByteArrayOutputStream();
+
+        service.export(output, CatalogueFormat.CSV);
+
+        var lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        Assertions.assertThat(lines).hasSize(BOOKS + 1);
+        Assertions.assertThat(lines[0]).isEqualTo("id,title,author,isbn");
+        Assertions.assertThat(lines[1]).endsWith(",Title 0,\"Author, 0\"," + TestBase.isbn(100_000));
+    }
+
+    @Test
+    @DisplayName("Export - should keep the persistence context bounded while streaming")
+    public void exportBoundedMemoryTest() throws Exception {
+        var probe = new PersistenceContextProbe(entityManager);
+
+        var rows = service.export(probe, CatalogueFormat.NDJSON);
+
+        Assertions.assertThat(rows).isEqualTo(BOOKS);
+        Assertions.assertThat(probe.flushes).isGreaterThan(1);
+        Assertions.assertThat(probe.maxManagedEntities).isLessThanOrEqualTo(1);
+    }
+
+    /**
+     * Discards the export and records how many entities the exporting session holds every time a buffer
+     * reaches the output. A materialised result set would show up here as thousands of managed books.
+     */
+    static class PersistenceContextProbe extends OutputStream {
+
+        private final EntityManager entityManager;
+        int flushes;
+        int maxManagedEntities;
+
+        PersistenceContextProbe(EntityManager entityManager) {
+            this.entityManager = entityManager;
+        }
+
+        @Override
+        public void write(int b) {
+            sample();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            sample();
+        }
+
+        private void sample() {
+            flushes++;
+            var managed = entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+            maxManagedEntities = Math.max(maxManagedEntities, managed);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.workshopspring.libraryapi.service;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.entity.ImportCheckpoint;
+import com.workshopspring.libraryapi.imports.CatalogueFormat;
+import com.workshopspring.libraryapi.repositories.BookRepository;
+import com.workshopspring.libraryapi.repositories.ImportCheckpointRepository;
+import com.workshopspring.libraryapi.services.BookExportService;
+import com.workshopspring.libraryapi.services.BookImportService;
+import com.workshopspring.libraryapi.services.BookService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+@SpringBootTest(properties = "library.import.chunk-size=2")
+@ActiveProfiles("test")
+public class BookImportServiceTest {
+
+    @Autowired
+    BookImportService service;
+
+    @Autowired
+    BookRepository repository;
+
+    @Autowired
+    ImportCheckpointRepository checkpoints;
+
+    @Autowired
+    BookService books;
+
+    @Autowired
+    BookExportService exportService;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Import - should import a csv catalogue rejecting invalid and duplicated rows")
+    public void importCsvTest() throws Exception {
+        var file = write("catalogue.csv",
+                "isbn,title,author",
+                "978-0-13-235088-4,Clean Code,Robert C. Martin",
+                "9780134757599,\"Refactoring, 2nd Edition\",Martin Fowler",
+                "0132350882,Clean Code,Robert C. Martin",
+                "9780321125217,,Nobody",
+                "\"9780596007126,broken");
+
+        var report = service.importFile(file);
+
+        Assertions.assertThat(report.getRead()).isEqualTo(5);
+        Assertions.assertThat(report.getImported()).isEqualTo(2);
+        Assertions.assertThat(report.getRejected()).isEqualTo(3);
+        Assertions.assertThat(report.getCommittedOffset()).isEqualTo(Files.size(file));
+        Assertions.assertThat(repository.findExistingIsbnKeys(
+                        List.of(9780132350884L, 9780134757599L, 9780321125217L, 9780596007126L)))
+                .containsExactlyInAnyOrder(9780132350884L, 9780134757599L);
+    }
+
+    @Test
+    @DisplayName("Import - should re-import an exported csv whose values hold line breaks")
+    public void exportRoundTripTest() throws Exception {
+        var title = "Line one\nline two, \"quoted\"\r\nline three";
+        var book = books.save(new CreateBookCommand(title, "Author", TestBase.isbn(790_001)));
+        var file = directory.resolve("export.csv");
+        try (var output = Files.newOutputStream(file)) {
+            exportService.export(output, CatalogueFormat.CSV);
+        }
+        books.delete(book.getId());
+
+        var report = service.importFile(file);
+
+        Assertions.assertThat(report.getImported()).isEqualTo(1);
+        Assertions.assertThat(report.getCommittedOffset()).isEqualTo(Files.size(file));
+        Assertions.assertThat(books.findByIsbn(book.getIsbn()).getTitle()).isEqualTo(title);
+    }
+
+    @Test
+    @DisplayName("Import - should resume a ndjson catalogue from the last committed offset")
+    public void resumeNdjsonTest() throws Exception {
+        var first = "{\"title\":\"Domain-Driven Design\",\"author\":\"Eric Evans\",\"isbn\":\"9780321125217\"}";
+        var file = write("catalogue.ndjson",
+                first,
+                "{\"title\":\"Release It!\",\"author\":\"Michael Nygard\",\"isbn\":\"9781680502398\"}",
+                "{\"title\":\"Working Effectively with Legacy Code\",\"author\":\"Michael Feathers\",\"isbn\":\"9780131177055\"}");
+        var source = file.toAbsolutePath().normalize().toString();
+        var fingerprint = Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis();
+        var checkpoint = new ImportCheckpoint(source, fingerprint);
+        checkpoint.setOffset(first.getBytes(StandardCharsets.UTF_8).length + 1);
+        checkpoints.save(checkpoint);
+
+        var report = service.importFile(file);
+        var rerun = service.importFile(file);
+
+        Assertions.assertThat(report.getImported()).isEqualTo(2);
+        Assertions.assertThat(repository.findExistingIsbnKeys(List.of(9780321125217L, 9781680502398L, 9780131177055L)))
+                .containsExactlyInAnyOrder(9781680502398L, 9780131177055L);
+        Assertions.assertThat(rerun.getRead()).isZero();
+        Assertions.assertThat(checkpoints.findById(source).orElseThrow().getImported()).isEqualTo(2);
+    }
+
+    private Path write(String name, String... lines) throws Exception {
+        return Files.write(directory.resolve(name), List.of(lines), StandardCharsets.UTF_8);
+    }
+}
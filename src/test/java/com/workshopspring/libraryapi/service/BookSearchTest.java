@@ -0,0 +1,99 @@
+package com.workshopspring.libraryapi.service;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.commands.UpdateBookCommand;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.repositories.BookRepository;
+import com.workshopspring.libraryapi.responses.BookResponse;
+import com.workshopspring.libraryapi.search.BookSearchIndex;
+import com.workshopspring.libraryapi.services.BookSearchService;
+import com.workshopspring.libraryapi.services.BookService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookSearchTest {
+
+    @Autowired
+    BookSearchIndex index;
+
+    @Autowired
+    BookSearchService searchService;
+
+    @Autowired
+    BookService service;
+
+    @Autowired
+    BookRepository repository;
+
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        rebuild();
+    }
+
+    @Test
+    @DisplayName("Search - should find books by whole words and prefixes of title and author")
+    public void wordAndPrefixTest() {
+        var book = service.save(new CreateBookCommand("The Quorvath Chronicles", "Ilsabet Marrowind", TestBase.isbn(710_001)));
+
+        Assertions.assertThat(ids("quorvath")).containsExactly(book.getId());
+        Assertions.assertThat(ids("QUORV")).containsExactly(book.getId());
+        Assertions.assertThat(ids("quorvath marrow")).containsExactly(book.getId());
+        Assertions.assertThat(ids("quorvath nobody")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Search - should rank title matches above author matches")
+    public void rankingTest() {
+        var byAuthor = service.save(new CreateBookCommand("Collected Letters", "Brenna Thessaly", TestBase.isbn(710_002)));
+        var byTitle = service.save(new CreateBookCommand("Thessaly Rising", "Oren Vask", TestBase.isbn(710_003)));
+
+        Assertions.assertThat(ids("thessaly")).containsExactly(byTitle.getId(), byAuthor.getId());
+    }
+
+    @Test
+    @DisplayName("Search - should follow updates and deletes")
+    public void updateAndDeleteTest() {
+        var book = service.save(new CreateBookCommand("Vantrel Gardens", "Mika Osterhald", TestBase.isbn(710_004)));
+
+        service.update(book.getId(), new UpdateBookCommand("Pellmoor Gardens", "Mika Osterhald"));
+        Assertions.assertThat(ids("vantrel")).isEmpty();
+        Assertions.assertThat(ids("pellmoor")).containsExactly(book.getId());
+
+        service.delete(book.getId());
+        Assertions.assertThat(ids("pellmoor")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Search - should rebuild the whole table in parallel")
+    public void rebuildTest() throws InterruptedException {
+        var books = new ArrayList<Book>();
+        for (int i = 0; i < 500; i++) books.add(new Book("Drovenmark Volume " + i, "Sella Quint", TestBase.isbn(710_100 + i)));
+        repository.insertAll(books);
+
+        rebuild();
+
+        Assertions.assertThat(index.size()).isEqualTo(repository.count());
+        Assertions.assertThat(searchService.search("drovenmark", 1_000).getItems()).hasSize(100);
+        Assertions.assertThat(searchService.search("drovenmark 42", 10).getItems())
+                .extracting(BookResponse::getTitle).startsWith("Drovenmark Volume 42").hasSize(10);
+    }
+
+    private Object[] ids(String text) {
+        return searchService.search(text, 20).getItems().stream().map(BookResponse::getId).toArray();
+    }
+
+    private void rebuild() throws InterruptedException {
+        while (index.isRebuilding()) Thread.sleep(10);
+        index.rebuild();
+    }
+}
@@ -1,26 +1,53 @@
 package com.workshopspring.libraryapi.service;
 
 import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.commands.LookupBooksCommand;
+import com.workshopspring.libraryapi.commands.PatchBookCommand;
+import com.workshopspring.libraryapi.config.BookLoaderProperties;
+import com.workshopspring.libraryapi.config.WriteBehindProperties;
 import com.workshopspring.libraryapi.entity.Book;
 import com.workshopspring.libraryapi.exceptions.DuplicatedISBN;
+import com.workshopspring.libraryapi.exceptions.InvalidCursor;
+import com.workshopspring.libraryapi.exceptions.PreconditionFailedException;
 import com.workshopspring.libraryapi.exceptions.ResourceNotFoundException;
+import com.workshopspring.libraryapi.index.IsbnIndex;
+import com.workshopspring.libraryapi.isbn.Isbn;
+import com.workshopspring.libraryapi.loading.BookLoader;
+import com.workshopspring.libraryapi.mappers.BookMapper;
+import com.workshopspring.libraryapi.queries.BookField;
+import com.workshopspring.libraryapi.queries.BookFilter;
+import com.workshopspring.libraryapi.queries.PageCursor;
 import com.workshopspring.libraryapi.repositories.BookRepository;
+import com.workshopspring.libraryapi.responses.BookLookupResponse;
+import com.workshopspring.libraryapi.responses.BookResponse;
 import com.workshopspring.libraryapi.services.BookService;
 import com.workshopspring.libraryapi.services.impl.BookServiceImpl;
+import com.workshopspring.libraryapi.writing.BookWriteBehind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.assertj.core.api.Assertions;
+import org.assertj.core.groups.Tuple;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.validation.Validator;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
@@ -30,25 +57,37 @@ public class BookServiceTest extends TestBase {
     BookService service;
 
     @Autowired
-    private ModelMapper mapper;
+    private BookMapper mapper;
+
+    @Autowired
+    private Validator validator;
 
     @MockBean
     BookRepository repository;
 
+    @MockBean
+    IsbnIndex isbnIndex;
+
     @BeforeEach
     public void setUp() {
-        this.service = new BookServiceImpl(repository, mapper);
+        Mockito.when(isbnIndex.mightContain(Mockito.anyLong())).thenReturn(true);
+        var loaderProperties = new BookLoaderProperties();
+        loaderProperties.setEnabled(false);
+        var loader = new BookLoader(repository, loaderProperties, new SimpleMeterRegistry());
+        var writeBehind = new BookWriteBehind(null, new WriteBehindProperties(), new SimpleMeterRegistry());
+        this.service = new BookServiceImpl(repository, mapper, validator, isbnIndex, loader, event -> { },
+                new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), writeBehind);
     }
 
     @Test
     @DisplayName("Service - Should save book")
     public void shouldSaveBookTest() {
         var command = this.makeCreateBookCommand();
-        var book = this.makeBook();
+        var book = this.makeNewBook();
         var savedBook = this.makeBook();
 
-        Mockito.when(repository.existsByIsbn(Mockito.anyString())).thenReturn(false);
-        Mockito.when(repository.save(book)).thenReturn(savedBook);
+        Mockito.when(repository.existsByIsbnKey(Mockito.anyLong())).thenReturn(false);
+        Mockito.when(repository.saveAndFlush(book)).thenReturn(savedBook);
 
         var response = service.save(command);
 
@@ -63,14 +102,99 @@ public class BookServiceTest extends TestBase {
     public void createBookWithDuplicatedIsnTest() {
         var command = this.makeCreateBookCommand();
         var book = this.makeBook();
-        Mockito.when(repository.existsByIsbn(Mockito.anyString())).thenReturn(true);
+        Mockito.when(repository.existsByIsbnKey(Mockito.anyLong())).thenReturn(true);
+
+        var exception = Assertions.catchThrowable(() -> service.save(command));
+        Assertions.assertThat(exception)
+                .isInstanceOf(DuplicatedISBN.class)
+                .hasMessage("Duplicated ISBN");
+
+        Mockito.verify(repository, Mockito.never()).saveAndFlush(book);
+    }
+
+    @Test
+    @DisplayName("Service - should skip the isbn query when the index rules the isbn out")
+    public void saveBookWithIndexedIsbnTest() {
+        var command = this.makeCreateBookCommand();
+        var savedBook = this.makeBook();
+        var isbnKey = Isbn.parse(command.getIsbn());
+        Mockito.when(isbnIndex.mightContain(isbnKey)).thenReturn(false);
+        Mockito.when(repository.saveAndFlush(this.makeNewBook())).thenReturn(savedBook);
+
+        var response = service.save(command);
+
+        Assertions.assertThat(response.getId()).isEqualTo(savedBook.getId());
+        Mockito.verify(repository, Mockito.never()).existsByIsbnKey(Mockito.anyLong());
+        Mockito.verify(isbnIndex, Mockito.times(1)).add(isbnKey);
+    }
+
+    @Test
+    @DisplayName("Service - should throw domain exception when a concurrent create wins the isbn")
+    public void saveBookLosingIsbnRaceTest() {
+        var command = this.makeCreateBookCommand();
+        var violation = new ConstraintViolationException("Unique index or primary key violation",
+                new SQLException(), "PUBLIC.UK_BOOK_ISBN_INDEX_1 ON PUBLIC.BOOK(ISBN)");
+        Mockito.when(repository.existsByIsbnKey(Isbn.parse(command.getIsbn()))).thenReturn(false);
+        Mockito.when(repository.saveAndFlush(Mockito.any(Book.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement", violation));
 
         var exception = Assertions.catchThrowable(() -> service.save(command));
+
         Assertions.assertThat(exception)
                 .isInstanceOf(DuplicatedISBN.class)
                 .hasMessage("Duplicated ISBN");
+    }
 
-        Mockito.verify(repository, Mockito.never()).save(book);
+    @Test
+    @DisplayName("Service - should save a batch of books with one isbn lookup")
+    public void saveAllBooksTest() {
+        var first = this.makeCreateBookCommand();
+        var second = new CreateBookCommand("Refactoring", "Martin Fowler", REFACTORING_ISBN);
+        Mockito.when(repository.findExistingIsbnKeys(Mockito.anyCollection())).thenReturn(Set.of());
+        Mockito.when(repository.insertAll(Mockito.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        var response = service.saveAll(List.of(first, second));
+
+        Mockito.verify(repository, Mockito.times(1)).findExistingIsbnKeys(Mockito.anyCollection());
+        Mockito.verify(repository, Mockito.never()).existsByIsbnKey(Mockito.anyLong());
+        Assertions.assertThat(response.getCreated()).extracting(BookResponse::getIsbn)
+                .containsExactly(CLEAN_CODE_ISBN, REFACTORING_ISBN);
+        Assertions.assertThat(response.getErrors()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Service - should report invalid and duplicated items of a batch")
+    public void saveAllWithRejectedBooksTest() {
+        var registered = this.makeCreateBookCommand();
+        var valid = new CreateBookCommand("Refactoring", "Martin Fowler", REFACTORING_ISBN);
+        var repeated = new CreateBookCommand("Refactoring", "Martin Fowler", "0-201-48567-2");
+        var invalid = new CreateBookCommand();
+        Mockito.when(repository.findExistingIsbnKeys(Mockito.anyCollection()))
+                .thenReturn(Set.of(Isbn.parse(CLEAN_CODE_ISBN)));
+        Mockito.when(repository.insertAll(Mockito.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        var response = service.saveAll(List.of(registered, valid, repeated, invalid));
+
+        Assertions.assertThat(response.getCreated()).extracting(BookResponse::getTitle).containsExactly("Refactoring");
+        Assertions.assertThat(response.getErrors()).extracting("index").containsExactly(0, 2, 3);
+        Assertions.assertThat(response.getErrors()).extracting("message")
+                .containsExactly("Duplicated ISBN", "Duplicated ISBN", "Invalid book");
+        Assertions.assertThat(response.getErrors().get(2).getErrors()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Service - should report null items of a batch")
+    public void saveAllWithNullBookTest() {
+        var valid = this.makeCreateBookCommand();
+        Mockito.when(repository.insertAll(Mockito.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        var response = service.saveAll(Arrays.asList(null, valid));
+
+        Assertions.assertThat(response.getCreated()).hasSize(1);
+        Assertions.assertThat(response.getErrors()).singleElement().satisfies(error -> {
+            Assertions.assertThat(error.getIndex()).isZero();
+            Assertions.assertThat(error.getErrors()).containsExactly("must not be null");
+        });
     }
 
     @Test
@@ -100,6 +224,132 @@ public class BookServiceTest extends TestBase {
                 .hasMessage("Resource not found id: " + book.getId());
     }
 
+    @Test
+    @DisplayName("Service - should answer an empty lookup instead of throwing for a nonexistent book")
+    public void findOneNonExistentBookTest() {
+        Mockito.when(repository.findById(1L)).thenReturn(Optional.empty());
+
+        Assertions.assertThat(service.findOne(1L)).isEmpty();
+    }
+
+
+    @Test
+    @DisplayName("Service - should look up only the version of a book")
+    public void findVersionTest() {
+        Mockito.when(repository.findVersionById(1L)).thenReturn(Optional.of(5L));
+
+        Assertions.assertThat(service.findVersion(1L)).isEqualTo(5L);
+        Mockito.verify(repository, Mockito.never()).findById(Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("Service - should throw not found exception when looking up the version of a nonexistent book")
+    public void findVersionNonExistentBookTest() {
+        Mockito.when(repository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        var exception = Assertions.catchThrowable(() -> service.findVersion(1L));
+
+        Assertions.assertThat(exception).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Service - should find a book by any form of its isbn")
+    public void findByIsbnTest() {
+        var book = this.makeBook();
+        Mockito.when(repository.findByIsbnKey(9780132350884L)).thenReturn(Optional.of(book));
+
+        var response = service.findByIsbn("0132350882");
+
+        Assertions.assertThat(response.getId()).isEqualTo(book.getId());
+    }
+
+    @Test
+    @DisplayName("Service - should look up ids and isbns in request order, marking the missing ones")
+    public void lookupTest() {
+        var book = this.makeBook();
+        var other = new Book(2L, "Refactoring", "Martin Fowler", isbn(2));
+        Mockito.when(repository.findAllById(Set.of(1L, 404L))).thenReturn(List.of(book));
+        Mockito.when(repository.findAllByIsbnKeyIn(Set.of(Isbn.parse(isbn(2)), Isbn.parse(isbn(3)))))
+                .thenReturn(List.of(other));
+
+        var response = service.lookup(new LookupBooksCommand(List.of(404L, 1L),
+                List.of(isbn(3), "not an isbn", isbn(2)), null));
+
+        Assertions.assertThat(response.getResults())
+                .extracting(BookLookupResponse.Result::getKey, BookLookupResponse.Result::isFound)
+                .containsExactly(Tuple.tuple("404", false), Tuple.tuple("1", true),
+                        Tuple.tuple(isbn(3), false), Tuple.tuple("not an isbn", false), Tuple.tuple(isbn(2), true));
+        Assertions.assertThat(response.getResults().get(4).getBook().getId()).isEqualTo(2L);
+        Assertions.assertThat(response.getFields()).containsExactlyInAnyOrder(BookField.values());
+    }
+
+    @Test
+    @DisplayName("Service - should not query isbns when none of them is valid")
+    public void lookupInvalidIsbnsTest() {
+        var response = service.lookup(new LookupBooksCommand(null, List.of("not an isbn"), null));
+
+        Assertions.assertThat(response.getResults()).extracting(BookLookupResponse.Result::isFound).containsExactly(false);
+        Mockito.verify(repository, Mockito.never()).findAllByIsbnKeyIn(Mockito.any());
+        Mockito.verify(repository, Mockito.never()).findAllById(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Service - should not match requested isbns against a legacy book with an invalid isbn")
+    public void lookupLegacyInvalidIsbnTest() {
+        var legacy = new Book(1L, "Legacy", "Unknown", "garbage");
+        Mockito.when(repository.findAllById(Set.of(1L))).thenReturn(List.of(legacy));
+
+        var response = service.lookup(new LookupBooksCommand(List.of(1L), List.of("not an isbn"), null));
+
+        Assertions.assertThat(response.getResults())
+                .extracting(BookLookupResponse.Result::getKey, BookLookupResponse.Result::isFound)
+                .containsExactly(Tuple.tuple("1", true), Tuple.tuple("not an isbn", false));
+    }
+
+    @Test
+    @DisplayName("Service - should throw not found exception when the isbn is not valid")
+    public void findByInvalidIsbnTest() {
+        var exception = Assertions.catchThrowable(() -> service.findByIsbn("9780132350880"));
+
+        Assertions.assertThat(exception).isInstanceOf(ResourceNotFoundException.class);
+        Mockito.verify(repository, Mockito.never()).findByIsbnKey(Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("Service - should list books seeking after the cursor")
+    public void findAllBooksTest() {
+        var filter = new BookFilter("Robert C. Martin", null, null);
+        var books = List.of(new BookResponse(11L, "Clean Code", "Robert C. Martin", isbn(1), 0L),
+                new BookResponse(12L, "Clean Architecture", "Robert C. Martin", isbn(2), 0L),
+                new BookResponse(13L, "Clean Agile", "Robert C. Martin", isbn(3), 0L));
+        Mockito.when(repository.findPage(filter, 10L, 3)).thenReturn(books);
+
+        var page = service.findAll(filter, PageCursor.encode(10L), 2);
+
+        Assertions.assertThat(page.getItems()).extracting(BookResponse::getId).containsExactly(11L, 12L);
+        Assertions.assertThat(PageCursor.decode(page.getNext())).isEqualTo(12L);
+    }
+
+    @Test
+    @DisplayName("Service - should not return a cursor on the last page")
+    public void findAllLastPageTest() {
+        var filter = new BookFilter();
+        Mockito.when(repository.findPage(filter, 0L, 21)).thenReturn(List.of(this.makeBookResponse()));
+
+        var page = service.findAll(filter, null, 20);
+
+        Assertions.assertThat(page.getItems()).hasSize(1);
+        Assertions.assertThat(page.getNext()).isNull();
+    }
+
+    @Test
+    @DisplayName("Service - should reject a malformed cursor")
+    public void findAllInvalidCursorTest() {
+        var exception = Assertions.catchThrowable(() -> service.findAll(new BookFilter(), "not a cursor", 20));
+
+        Assertions.assertThat(exception).isInstanceOf(InvalidCursor.class);
+        Mockito.verify(repository, Mockito.never()).findPage(Mockito.any(), Mockito.anyLong(), Mockito.anyInt());
+    }
 
     @Test
     @DisplayName("Service - should delete a book")
@@ -153,6 +403,48 @@ public class BookServiceTest extends TestBase {
         Assertions.assertThat(response.getIsbn()).isEqualTo(updatedBook.getIsbn());
     }
 
+    @Test
+    @DisplayName("Service - should update a book matching the expected version")
+    public void updateBookWithVersionTest() {
+        var book = this.makeBook();
+        book.setVersion(3L);
+        var command = this.makeUpdateBookCommand();
+        Mockito.when(repository.findById(book.getId())).thenReturn(Optional.of(book));
+        Mockito.when(repository.saveAndFlush(book)).thenReturn(book);
+
+        var response = service.update(book.getId(), command, 3L);
+
+        Assertions.assertThat(response.getTitle()).isEqualTo(command.getTitle());
+        Assertions.assertThat(response.getAuthor()).isEqualTo(command.getAuthor());
+        Mockito.verify(repository, Mockito.times(1)).saveAndFlush(book);
+    }
+
+    @Test
+    @DisplayName("Service - should refuse to update a book changed since the expected version")
+    public void updateStaleBookTest() {
+        var book = this.makeBook();
+        book.setVersion(4L);
+        Mockito.when(repository.findById(book.getId())).thenReturn(Optional.of(book));
+
+        var exception = Assertions.catchThrowable(() -> service.update(book.getId(), makeUpdateBookCommand(), 3L));
+
+        Assertions.assertThat(exception).isInstanceOf(PreconditionFailedException.class);
+        Mockito.verify(repository, Mockito.never()).saveAndFlush(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Service - should patch only the given fields")
+    public void patchBookTest() {
+        var book = this.makeBook();
+        Mockito.when(repository.findById(book.getId())).thenReturn(Optional.of(book));
+        Mockito.when(repository.saveAndFlush(book)).thenReturn(book);
+
+        var response = service.patch(book.getId(), new PatchBookCommand("Clean Code 2nd Edition", null), null);
+
+        Assertions.assertThat(response.getTitle()).isEqualTo("Clean Code 2nd Edition");
+        Assertions.assertThat(response.getAuthor()).isEqualTo("Robert C. Martin");
+    }
+
     @Test
     @DisplayName("Service - should throw not found exception when try update a nonexistent book")
     public void updateNonExistentBookTest() {
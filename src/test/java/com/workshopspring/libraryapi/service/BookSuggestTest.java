@@ -0,0 +1,73 @@
+package com.workshopspring.libraryapi.service;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.commands.PatchBookCommand;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.queries.BookField;
+import com.workshopspring.libraryapi.repositories.BookRepository;
+import com.workshopspring.libraryapi.services.BookSearchService;
+import com.workshopspring.libraryapi.services.BookService;
+import com.workshopspring.libraryapi.suggest.BookSuggester;
+import com.workshopspring.libraryapi.suggest.Suggestion;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookSuggestTest {
+
+    @Autowired
+    BookSuggester suggester;
+
+    @Autowired
+    BookSearchService searchService;
+
+    @Autowired
+    BookService service;
+
+    @Autowired
+    BookRepository repository;
+
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        while (!suggester.isReady()) Thread.sleep(10);
+    }
+
+    @Test
+    @DisplayName("Suggest - should rank titles and authors by number of books after a rebuild")
+    public void rebuildTest() {
+        var books = new ArrayList<Book>();
+        for (int i = 0; i < 3; i++) books.add(new Book("Yllandor Tales " + i, "Yllandor Press", TestBase.isbn(720_000 + i)));
+        books.add(new Book("Yllandor Atlas", "Corra Venn", TestBase.isbn(720_010)));
+        repository.insertAll(books);
+
+        suggester.rebuild();
+
+        Assertions.assertThat(searchService.suggest("yllan", 2).getItems())
+                .containsExactly(new Suggestion("Yllandor Press", BookField.AUTHOR, 3),
+                        new Suggestion("Yllandor Atlas", BookField.TITLE, 1));
+    }
+
+    @Test
+    @DisplayName("Suggest - should follow writes through the book service")
+    public void writesTest() {
+        var book = service.save(new CreateBookCommand("Quessary Lanterns", "Quessary House", TestBase.isbn(720_100)));
+        Assertions.assertThat(searchService.suggest("quessary", 10).getItems()).extracting(Suggestion::getText)
+                .containsExactlyInAnyOrder("Quessary Lanterns", "Quessary House");
+
+        service.patch(book.getId(), new PatchBookCommand("Quessary Lamps", null), null);
+        Assertions.assertThat(searchService.suggest("quessary", 10).getItems()).extracting(Suggestion::getText)
+                .containsExactlyInAnyOrder("Quessary Lamps", "Quessary House");
+
+        service.delete(book.getId());
+        Assertions.assertThat(searchService.suggest("quessary", 10).getItems()).isEmpty();
+    }
+}
@@ -0,0 +1,116 @@
+package com.workshopspring.libraryapi.service;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.UpdateBookCommand;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.exceptions.PreconditionFailedException;
+import com.workshopspring.libraryapi.repositories.BookRepository;
+import com.workshopspring.libraryapi.services.BookService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookUpdateConcurrencyTest {
+
+    static int WRITERS = 16;
+
+    @Autowired
+    BookService service;
+
+    @Autowired
+    BookRepository repository;
+
+    ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(WRITERS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Concurrency - only one writer holding the same version should win")
+    public void conditionalWritersTest() throws Exception {
+        var book = repository.save(new Book("Clean Code", "Robert C. Martin", TestBase.isbn(500_001)));
+        var version = book.getVersion();
+
+        var outcomes = race(writer -> service.update(book.getId(), command(writer), version));
+
+        Assertions.assertThat(outcomes.succeeded).isEqualTo(1);
+        Assertions.assertThat(outcomes.rejected).isEqualTo(WRITERS - 1);
+        Assertions.assertThat(repository.findById(book.getId()).orElseThrow().getVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    @DisplayName("Concurrency - unconditional writers should never overwrite each other silently")
+    public void unconditionalWritersTest() throws Exception {
+        var book = repository.save(new Book("Refactoring", "Martin Fowler", TestBase.isbn(500_002)));
+        var version = book.getVersion();
+
+        var outcomes = race(writer -> service.update(book.getId(), command(writer)));
+
+        Assertions.assertThat(outcomes.succeeded + outcomes.rejected).isEqualTo(WRITERS);
+        Assertions.assertThat(repository.findById(book.getId()).orElseThrow().getVersion())
+                .isEqualTo(version + outcomes.succeeded);
+    }
+
+    private UpdateBookCommand command(int writer) {
+        return new UpdateBookCommand("Title by writer " + writer, "Author " + writer);
+    }
+
+    private Outcomes race(Writer writer) throws InterruptedException {
+        var start = new CountDownLatch(1);
+        var futures = new ArrayList<Future<Book>>();
+        for (int i = 0; i < WRITERS; i++) {
+            var id = i;
+            Callable<Book> task = () -> {
+                start.await();
+                return writer.write(id);
+            };
+            futures.add(executor.submit(task));
+        }
+        start.countDown();
+
+        var outcomes = new Outcomes();
+        for (var future : futures) {
+            try {
+                future.get();
+                outcomes.succeeded++;
+            } catch (ExecutionException e) {
+                Assertions.assertThat(e.getCause()).isInstanceOfAny(PreconditionFailedException.class,
+                        OptimisticLockingFailureException.class);
+                outcomes.rejected++;
+            }
+        }
+        return outcomes;
+    }
+
+    interface Writer {
+        Book write(int writer);
+    }
+
+    static class Outcomes {
+        int succeeded;
+        int rejected;
+    }
+}
@@ -0,0 +1,56 @@
+package com.workshopspring.libraryapi.service;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.index.IsbnIndex;
+import com.workshopspring.libraryapi.isbn.Isbn;
+import com.workshopspring.libraryapi.repositories.BookRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.stream.IntStream;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class IsbnIndexTest {
+
+    @Autowired
+    IsbnIndex index;
+
+    @Autowired
+    BookRepository repository;
+
+    @Test
+    @DisplayName("ISBN index - should contain every registered isbn and rule out unknown ones")
+    public void rebuildTest() {
+        var books = new ArrayList<Book>();
+        for (int i = 0; i < 1_000; i++) books.add(new Book("Title " + i, "Author " + i, TestBase.isbn(300_000 + i)));
+        repository.insertAll(books);
+
+        index.rebuild();
+
+        Assertions.assertThat(index.isReady()).isTrue();
+        Assertions.assertThat(IntStream.range(0, 1_000).allMatch(i -> index.mightContain(key(300_000 + i)))).isTrue();
+        var falsePositives = IntStream.range(0, 1_000).filter(i -> index.mightContain(key(400_000 + i))).count();
+        Assertions.assertThat(falsePositives).isLessThan(50);
+    }
+
+    @Test
+    @DisplayName("ISBN index - should index isbns added after warming")
+    public void addTest() {
+        index.rebuild();
+
+        index.add(key(300_999_999));
+
+        Assertions.assertThat(index.mightContain(key(300_999_999))).isTrue();
+    }
+
+    private long key(long n) {
+        return Isbn.parse(TestBase.isbn(n));
+    }
+}
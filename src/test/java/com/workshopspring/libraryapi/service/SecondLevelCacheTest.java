@@ -0,0 +1,124 @@
+package com.workshopspring.libraryapi.service;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.commands.UpdateBookCommand;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.imports.CatalogueFormat;
+import com.workshopspring.libraryapi.isbn.Isbn;
+import com.workshopspring.libraryapi.repositories.BookRepository;
+import com.workshopspring.libraryapi.services.BookExportService;
+import com.workshopspring.libraryapi.services.BookService;
+import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.OutputStream;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class SecondLevelCacheTest {
+
+    @Autowired
+    BookService service;
+
+    @Autowired
+    BookRepository repository;
+
+    @Autowired
+    BookExportService exportService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Second-level cache - should load a book by id across sessions without reading its row again")
+    public void entityCacheHitTest() {
+        var book = service.save(new CreateBookCommand("Cached", "Author", TestBase.isbn(780_001)));
+        statistics.clear();
+
+        repository.findById(book.getId());
+        repository.findById(book.getId());
+
+        var region = statistics.getDomainDataRegionStatistics(Book.CACHE_REGION);
+        Assertions.assertThat(region.getHitCount()).isEqualTo(2);
+        Assertions.assertThat(region.getMissCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Second-level cache - should answer repeated isbn queries from the query cache")
+    public void queryCacheHitTest() {
+        var book = service.save(new CreateBookCommand("Cached", "Author", TestBase.isbn(780_002)));
+        statistics.clear();
+
+        Assertions.assertThat(repository.existsByIsbnKey(book.getIsbnKey())).isTrue();
+        Assertions.assertThat(repository.existsByIsbnKey(book.getIsbnKey())).isTrue();
+        Assertions.assertThat(repository.findByIsbnKey(book.getIsbnKey())).isPresent();
+        Assertions.assertThat(repository.findByIsbnKey(book.getIsbnKey())).isPresent();
+
+        Assertions.assertThat(statistics.getQueryCacheMissCount()).isEqualTo(2);
+        Assertions.assertThat(statistics.getQueryCachePutCount()).isEqualTo(2);
+        Assertions.assertThat(statistics.getQueryCacheHitCount()).isEqualTo(2);
+        Assertions.assertThat(statistics.getDomainDataRegionStatistics(Book.CACHE_REGION).getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Second-level cache - should serve the new state of a book after an update")
+    public void updateInvalidationTest() {
+        var book = service.save(new CreateBookCommand("Cached", "Author", TestBase.isbn(780_003)));
+        repository.findById(book.getId());
+        repository.findByIsbnKey(book.getIsbnKey());
+
+        service.update(book.getId(), new UpdateBookCommand("Updated", "Author"));
+
+        Assertions.assertThat(repository.findById(book.getId())).hasValueSatisfying(stored ->
+                Assertions.assertThat(stored.getTitle()).isEqualTo("Updated"));
+        Assertions.assertThat(repository.findByIsbnKey(book.getIsbnKey())).hasValueSatisfying(stored -> {
+            Assertions.assertThat(stored.getTitle()).isEqualTo("Updated");
+            Assertions.assertThat(stored.getVersion()).isEqualTo(1L);
+        });
+        Assertions.assertThat(repository.findVersionById(book.getId())).contains(1L);
+    }
+
+    @Test
+    @DisplayName("Second-level cache - should stop serving a book once it is deleted")
+    public void deleteInvalidationTest() {
+        var isbnKey = Isbn.parse(TestBase.isbn(780_004));
+        var book = service.save(new CreateBookCommand("Cached", "Author", TestBase.isbn(780_004)));
+        Assertions.assertThat(repository.existsByIsbnKey(isbnKey)).isTrue();
+        Assertions.assertThat(repository.findById(book.getId())).isPresent();
+
+        service.delete(book.getId());
+
+        Assertions.assertThat(repository.existsByIsbnKey(isbnKey)).isFalse();
+        Assertions.assertThat(repository.findByIsbnKey(isbnKey)).isEmpty();
+        Assertions.assertThat(repository.findById(book.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Second-level cache - should leave the book region untouched by a full export")
+    public void exportBypassesCacheTest() throws Exception {
+        service.save(new CreateBookCommand("Exported", "Author", TestBase.isbn(780_005)));
+        entityManagerFactory.getCache().evict(Book.class);
+        statistics.clear();
+
+        Assertions.assertThat(exportService.export(OutputStream.nullOutputStream(), CatalogueFormat.NDJSON)).isPositive();
+
+        Assertions.assertThat(statistics.getDomainDataRegionStatistics(Book.CACHE_REGION).getPutCount()).isZero();
+    }
+}
@@ -0,0 +1,36 @@
+package com.workshopspring.libraryapi.sql;
+
+import org.assertj.core.api.Assertions;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * Statement budgets for tests running against the proxied data source, either around a block of code or, with
+ * MockMvc, for the request just performed:
+ * <pre>
+ * mvc.perform(post("/api/books")...).andExpect(SqlAssertions.atMostStatements(2));
+ * SqlAssertions.assertAtMostStatements(1, () -&gt; service.findByIsbn(isbn));
+ * </pre>
+ */
+public final class SqlAssertions {
+
+    private SqlAssertions() {
+    }
+
+    public static ResultMatcher atMostStatements(int max) {
+        return result -> {
+            var recording = (StatementRecording) result.getRequest().getAttribute(StatementBudgetFilter.RECORDING);
+            Assertions.assertThat(recording).as("no statement recording, is the request under /api?").isNotNull();
+            assertAtMost(max, recording);
+        };
+    }
+
+    public static StatementRecording assertAtMostStatements(int max, Runnable action) {
+        var recording = StatementRecorder.record(action);
+        assertAtMost(max, recording);
+        return recording;
+    }
+
+    private static void assertAtMost(int max, StatementRecording recording) {
+        Assertions.assertThat(recording.count()).as("statements issued: %s", recording).isLessThanOrEqualTo(max);
+    }
+}
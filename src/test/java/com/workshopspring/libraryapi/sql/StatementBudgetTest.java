@@ -0,0 +1,90 @@
+package com.workshopspring.libraryapi.sql;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.index.IsbnIndex;
+import com.workshopspring.libraryapi.repositories.BookRepository;
+import com.workshopspring.libraryapi.services.BookService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.List;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class StatementBudgetTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    BookService service;
+
+    @Autowired
+    BookRepository repository;
+
+    @Autowired
+    IsbnIndex isbnIndex;
+
+    @BeforeEach
+    public void setUp() {
+        isbnIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("SQL - should keep the book endpoints within their statement budgets")
+    public void endpointBudgetsTest() throws Exception {
+        // the pooled sequence optimizer reads book_seq twice on its first allocation; writes include the outbox row
+        service.save(new CreateBookCommand("Warm up", "Author", TestBase.isbn(740_000)));
+
+        var json = "{\"title\":\"Budget\",\"author\":\"Author\",\"isbn\":\"" + TestBase.isbn(740_001) + "\"}";
+        mvc.perform(MockMvcRequestBuilders.post("/api/books").contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(SqlAssertions.atMostStatements(2));
+        var id = service.findByIsbn(TestBase.isbn(740_001)).getId();
+
+        mvc.perform(MockMvcRequestBuilders.get("/api/books/isbn/" + TestBase.isbn(740_001)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(SqlAssertions.atMostStatements(1));
+        mvc.perform(MockMvcRequestBuilders.get("/api/books").param("author", "Author"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(SqlAssertions.atMostStatements(1));
+        mvc.perform(MockMvcRequestBuilders.put("/api/books/" + id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Budget 2\",\"author\":\"Author\"}"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(SqlAssertions.atMostStatements(3));
+        mvc.perform(MockMvcRequestBuilders.post("/api/books/lookup").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[" + id + "],\"isbns\":[\"" + TestBase.isbn(740_001) + "\"]}"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(SqlAssertions.atMostStatements(2));
+        mvc.perform(MockMvcRequestBuilders.delete("/api/books/" + id))
+                .andExpect(MockMvcResultMatchers.status().isNoContent())
+                .andExpect(SqlAssertions.atMostStatements(3));
+    }
+
+    @Test
+    @DisplayName("SQL - should record the statements of a block and spot repeated ones")
+    public void recordTest() {
+        var book = service.save(new CreateBookCommand("Budget", "Author", TestBase.isbn(740_002)));
+
+        SqlAssertions.assertAtMostStatements(1, () -> service.findByIsbn(TestBase.isbn(740_002)));
+        var recording = StatementRecorder.record(() -> {
+            for (int i = 0; i < 5; i++) repository.findExistingIsbnKeys(List.of(book.getIsbnKey()));
+        });
+
+        Assertions.assertThat(recording.count()).isEqualTo(5);
+        Assertions.assertThat(recording.repeated(5)).hasSize(1);
+        Assertions.assertThat(recording.executions().keySet().iterator().next()).startsWith("select book0_.isbn_key");
+    }
+}
@@ -0,0 +1,73 @@
+package com.workshopspring.libraryapi.suggest;
+
+import com.workshopspring.libraryapi.queries.BookField;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SuggestSnapshotTest {
+
+    @Test
+    @DisplayName("Suggest - should normalise case, accents and punctuation")
+    public void normalizeTest() {
+        Assertions.assertThat(SuggestSnapshot.normalize("  Gödel, Escher,  BACH! ")).isEqualTo("godel escher bach");
+        Assertions.assertThat(SuggestSnapshot.normalize(null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Suggest - should return the most popular completions of a prefix")
+    public void topKTest() {
+        var snapshot = SuggestSnapshot.builder()
+                .add(BookField.TITLE, "Dune", 1)
+                .add(BookField.TITLE, "dune", 2)
+                .add(BookField.TITLE, "Dune Messiah", 1)
+                .add(BookField.AUTHOR, "Durrell, Gerald", 2)
+                .add(BookField.TITLE, "Emma", 5)
+                .build();
+
+        Assertions.assertThat(snapshot.suggest("DU", 2))
+                .containsExactly(new Suggestion("Dune", BookField.TITLE, 3),
+                        new Suggestion("Durrell, Gerald", BookField.AUTHOR, 2));
+        Assertions.assertThat(snapshot.suggest("dune m", 10)).extracting(Suggestion::getText).containsExactly("Dune Messiah");
+        Assertions.assertThat(snapshot.suggest("x", 10)).isEmpty();
+        Assertions.assertThat(snapshot.suggest(" ", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Suggest - should keep values outside Latin-1")
+    public void unicodeTest() {
+        var snapshot = SuggestSnapshot.builder()
+                .add(BookField.TITLE, "Война и мир", 1)
+                .add(BookField.AUTHOR, "Émile Zola", 1)
+                .build();
+
+        Assertions.assertThat(snapshot.suggest("вой", 10)).extracting(Suggestion::getText).containsExactly("Война и мир");
+        Assertions.assertThat(snapshot.suggest("emi", 10)).extracting(Suggestion::getText).containsExactly("Émile Zola");
+    }
+
+    @Test
+    @DisplayName("Suggest - should apply writes to existing and new values")
+    public void adjustTest() {
+        var snapshot = SuggestSnapshot.builder().add(BookField.TITLE, "Dune", 1).build();
+
+        snapshot.adjust(BookField.TITLE, "DUNE", -1);
+        snapshot.adjust(BookField.TITLE, "Dublin Stories", 1);
+        snapshot.adjust(BookField.AUTHOR, "Dune", 1);
+
+        Assertions.assertThat(snapshot.overlaySize()).isEqualTo(2);
+        Assertions.assertThat(snapshot.suggest("du", 10)).containsExactlyInAnyOrder(
+                new Suggestion("Dublin Stories", BookField.TITLE, 1),
+                new Suggestion("Dune", BookField.AUTHOR, 1));
+    }
+
+    @Test
+    @DisplayName("Suggest - should pack entries into a few arrays")
+    public void memoryTest() {
+        var builder = SuggestSnapshot.builder();
+        for (int i = 0; i < 10_000; i++) builder.add(BookField.TITLE, "Title number " + i, 1);
+        var snapshot = builder.build();
+
+        Assertions.assertThat(snapshot.size()).isEqualTo(10_000);
+        Assertions.assertThat(snapshot.memoryBytes()).isBetween(10_000L * 30, 10_000L * 60);
+    }
+}
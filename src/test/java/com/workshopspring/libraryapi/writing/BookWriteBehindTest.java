@@ -0,0 +1,233 @@
+package com.workshopspring.libraryapi.writing;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.config.WriteBehindProperties;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.exceptions.BatchItemError;
+import com.workshopspring.libraryapi.exceptions.DuplicatedISBN;
+import com.workshopspring.libraryapi.responses.BatchCreateResponse;
+import com.workshopspring.libraryapi.responses.BookResponse;
+import com.workshopspring.libraryapi.services.BookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class BookWriteBehindTest {
+
+    private final BookService service = Mockito.mock(BookService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final WriteBehindProperties properties = new WriteBehindProperties();
+    private BookWriteBehind writer;
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        if (writer != null) writer.close();
+    }
+
+    @Test
+    @DisplayName("Write-behind - should commit concurrent creates in one transaction and answer each caller")
+    public void groupCommitTest() throws Exception {
+        writer = writer(Duration.ofMinutes(1), 4, 100);
+        Mockito.when(service.saveAll(Mockito.anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+
+        var saves = new ArrayList<CompletableFuture<Book>>();
+        for (int i = 0; i < 4; i++) saves.add(save(i));
+
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertThat(saves.get(i).get(5, TimeUnit.SECONDS).getIsbn()).isEqualTo(TestBase.isbn(i));
+        }
+        Mockito.verify(service, Mockito.times(1)).saveAll(Mockito.anyList());
+        Assertions.assertThat(registry.get("library.write.behind.batch.size").summary().max()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Write-behind - should fail only the duplicated create of a batch")
+    public void duplicateInBatchTest() throws Exception {
+        writer = writer(Duration.ofMinutes(1), 2, 100);
+        Mockito.when(service.saveAll(Mockito.anyList())).thenAnswer(invocation -> {
+            List<CreateBookCommand> commands = invocation.getArgument(0);
+            var duplicate = commands.get(0).getIsbn().equals(TestBase.isbn(1)) ? 0 : 1;
+            var response = created(List.of(commands.get(1 - duplicate)));
+            response.setErrors(List.of(new BatchItemError(duplicate, TestBase.isbn(1), "Duplicated ISBN", List.of())));
+            return response;
+        });
+
+        var kept = save(0);
+        var duplicated = save(1);
+
+        Assertions.assertThat(kept.get(5, TimeUnit.SECONDS).getIsbn()).isEqualTo(TestBase.isbn(0));
+        Assertions.assertThatThrownBy(() -> duplicated.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(DuplicatedISBN.class);
+    }
+
+    @Test
+    @DisplayName("Write-behind - should retry one by one when the batch transaction fails")
+    public void retryAfterBatchFailureTest() throws Exception {
+        writer = writer(Duration.ofMinutes(1), 2, 100);
+        Mockito.when(service.saveAll(Mockito.anyList())).thenAnswer(invocation -> {
+            List<CreateBookCommand> commands = invocation.getArgument(0);
+            if (commands.size() > 1 || commands.get(0).getIsbn().equals(TestBase.isbn(1))) {
+                throw new DataIntegrityViolationException("uk_book_isbn");
+            }
+            return created(commands);
+        });
+
+        var kept = save(0);
+        var failed = save(1);
+
+        Assertions.assertThat(kept.get(5, TimeUnit.SECONDS).getIsbn()).isEqualTo(TestBase.isbn(0));
+        Assertions.assertThatThrownBy(() -> failed.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(DataIntegrityViolationException.class);
+        Mockito.verify(service, Mockito.times(3)).saveAll(Mockito.anyList());
+        Assertions.assertThat(registry.counter("library.write.behind.retries").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Write-behind - should answer a caller only once its batch has committed")
+    public void acknowledgeAfterCommitTest() throws Exception {
+        writer = writer(Duration.ZERO, 100, 100);
+        var commit = new CountDownLatch(1);
+        Mockito.when(service.saveAll(Mockito.anyList())).thenAnswer(invocation -> {
+            commit.await(5, TimeUnit.SECONDS);
+            return created(invocation.getArgument(0));
+        });
+
+        var save = save(0);
+        Thread.sleep(100);
+        Assertions.assertThat(save).isNotDone();
+
+        commit.countDown();
+        Assertions.assertThat(save.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Write-behind - should flush queued creates on close and hand later ones back")
+    public void flushOnCloseTest() throws Exception {
+        writer = writer(Duration.ofMinutes(1), 100, 100);
+        Mockito.when(service.saveAll(Mockito.anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+
+        var save = new CompletableFuture<Book>();
+        var caller = new Thread(() -> save.complete(writer.trySave(command(0))));
+        caller.start();
+        while (caller.getState() != Thread.State.TIMED_WAITING) Thread.sleep(1);
+        writer.close();
+
+        Assertions.assertThat(save.get(5, TimeUnit.SECONDS).getIsbn()).isEqualTo(TestBase.isbn(0));
+        Assertions.assertThat(writer.isEnabled()).isFalse();
+        Assertions.assertThat(writer.trySave(command(1))).isNull();
+    }
+
+    @Test
+    @DisplayName("Write-behind - should hand the create back when the queue is full")
+    public void overflowTest() throws Exception {
+        writer = writer(Duration.ZERO, 1, 1);
+        var started = new CountDownLatch(1);
+        var commit = new CountDownLatch(1);
+        Mockito.when(service.saveAll(Mockito.anyList())).thenAnswer(invocation -> {
+            started.countDown();
+            commit.await(5, TimeUnit.SECONDS);
+            return created(invocation.getArgument(0));
+        });
+
+        var flushing = save(0);
+        Assertions.assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        var queued = save(1);
+        while (writer.queued() == 0) Thread.sleep(1);
+
+        Assertions.assertThat(writer.trySave(command(2))).isNull();
+        Assertions.assertThat(registry.counter("library.write.behind.overflows").count()).isEqualTo(1);
+        commit.countDown();
+        Assertions.assertThat(flushing.get(5, TimeUnit.SECONDS)).isNotNull();
+        Assertions.assertThat(queued.get(5, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Write-behind - should withdraw a create whose flush does not start in time")
+    public void awaitTimeoutTest() throws Exception {
+        writer = writer(Duration.ZERO, 1, 100);
+        properties.setAwaitTimeout(Duration.ofMillis(100));
+        var started = new CountDownLatch(1);
+        var commit = new CountDownLatch(1);
+        Mockito.when(service.saveAll(Mockito.anyList())).thenAnswer(invocation -> {
+            started.countDown();
+            commit.await(5, TimeUnit.SECONDS);
+            return created(invocation.getArgument(0));
+        });
+
+        var flushing = save(0);
+        Assertions.assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Assertions.assertThat(writer.trySave(command(1))).isNull();
+        Assertions.assertThat(writer.queued()).isZero();
+        Assertions.assertThat(registry.counter("library.write.behind.timeouts").count()).isEqualTo(1);
+        commit.countDown();
+        Assertions.assertThat(flushing.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        Mockito.verify(service, Mockito.times(1)).saveAll(Mockito.anyList());
+    }
+
+    @Test
+    @DisplayName("Write-behind - should stop and fail queued creates when the flusher dies")
+    public void flusherDiesTest() throws Exception {
+        writer = writer(Duration.ZERO, 1, 100);
+        var started = new CountDownLatch(1);
+        var commit = new CountDownLatch(1);
+        Mockito.when(service.saveAll(Mockito.anyList())).thenAnswer(invocation -> {
+            started.countDown();
+            commit.await(5, TimeUnit.SECONDS);
+            throw new Error("flusher killed");
+        });
+
+        var flushing = save(0);
+        Assertions.assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        var queued = save(1);
+        while (writer.queued() == 0) Thread.sleep(1);
+        commit.countDown();
+
+        Assertions.assertThatThrownBy(() -> flushing.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(Error.class);
+        Assertions.assertThatThrownBy(() -> queued.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class);
+        Assertions.assertThat(writer.isEnabled()).isFalse();
+        Assertions.assertThat(writer.trySave(command(2))).isNull();
+    }
+
+    @SuppressWarnings("unchecked")
+    private BookWriteBehind writer(Duration maxWait, int maxBatchSize, int queueCapacity) {
+        properties.setEnabled(true);
+        properties.setMaxWait(maxWait);
+        properties.setMaxBatchSize(maxBatchSize);
+        properties.setQueueCapacity(queueCapacity);
+        ObjectProvider<BookService> provider = Mockito.mock(ObjectProvider.class);
+        Mockito.when(provider.getObject()).thenReturn(service);
+        return new BookWriteBehind(provider, properties, registry);
+    }
+
+    private CompletableFuture<Book> save(int n) {
+        return CompletableFuture.supplyAsync(() -> writer.trySave(command(n)));
+    }
+
+    private static CreateBookCommand command(int n) {
+        return new CreateBookCommand("Book " + n, "Author", TestBase.isbn(n));
+    }
+
+    private static BatchCreateResponse created(List<CreateBookCommand> commands) {
+        var created = new ArrayList<BookResponse>();
+        for (var command : commands) {
+            var id = Long.parseLong(command.getTitle().substring(5)) + 1;
+            created.add(new BookResponse(id, command.getTitle(), command.getAuthor(), command.getIsbn(), 0L));
+        }
+        return new BatchCreateResponse(created, new ArrayList<>());
+    }
+}
@@ -0,0 +1,95 @@
+package com.workshopspring.libraryapi.writing;
+
+import com.workshopspring.libraryapi.TestBase;
+import com.workshopspring.libraryapi.commands.CreateBookCommand;
+import com.workshopspring.libraryapi.entity.Book;
+import com.workshopspring.libraryapi.exceptions.DuplicatedISBN;
+import com.workshopspring.libraryapi.repositories.BookChangeRepository;
+import com.workshopspring.libraryapi.repositories.BookRepository;
+import com.workshopspring.libraryapi.services.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@SpringBootTest(properties = {"library.write-behind.enabled=true", "library.write-behind.max-wait=200ms"})
+@ActiveProfiles("test")
+public class WriteBehindSaveTest {
+
+    @Autowired
+    BookService service;
+
+    @Autowired
+    BookRepository repository;
+
+    @Autowired
+    BookChangeRepository changeRepository;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Test
+    @DisplayName("Write-behind - should commit every acknowledged create together with its outbox row")
+    public void acknowledgedCreatesAreCommittedTest() throws Exception {
+        var changesBefore = changeRepository.count();
+        var saves = saveConcurrently(760_000, 760_001, 760_002, 760_003, 760_003);
+
+        var saved = new ArrayList<Book>();
+        var duplicates = 0;
+        for (var save : saves) {
+            try {
+                saved.add(save.get(10, TimeUnit.SECONDS));
+            } catch (ExecutionException e) {
+                Assertions.assertThat(e.getCause()).isInstanceOf(DuplicatedISBN.class);
+                duplicates++;
+            }
+        }
+
+        Assertions.assertThat(duplicates).isEqualTo(1);
+        Assertions.assertThat(saved).hasSize(4);
+        for (var book : saved) {
+            Assertions.assertThat(repository.findById(book.getId())).hasValueSatisfying(
+                    stored -> Assertions.assertThat(stored.getIsbn()).isEqualTo(book.getIsbn()));
+        }
+        Assertions.assertThat(changeRepository.count()).isEqualTo(changesBefore + 4);
+        Assertions.assertThat(registry.get("library.write.behind.batch.size").summary().max())
+                .isGreaterThan(1);
+    }
+
+    @Test
+    @DisplayName("Write-behind - should reject a create whose isbn is already stored")
+    public void duplicateOfStoredBookTest() {
+        service.save(new CreateBookCommand("Stored", "Author", TestBase.isbn(760_010)));
+
+        Assertions.assertThatThrownBy(() -> service.save(new CreateBookCommand("Again", "Author",
+                TestBase.isbn(760_010)))).isInstanceOf(DuplicatedISBN.class);
+    }
+
+    private ArrayList<CompletableFuture<Book>> saveConcurrently(long... isbns) {
+        var pool = Executors.newFixedThreadPool(isbns.length);
+        var start = new CyclicBarrier(isbns.length);
+        var saves = new ArrayList<CompletableFuture<Book>>();
+        for (var isbn : isbns) {
+            saves.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                return service.save(new CreateBookCommand("Write-behind", "Author", TestBase.isbn(isbn)));
+            }, pool));
+        }
+        pool.shutdown();
+        return saves;
+    }
+}